@@ -2,8 +2,10 @@ package app.ysp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class YspBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(YspBackendApplication.class, args);
@@ -8,6 +8,7 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
 
@@ -44,4 +45,26 @@ public class S3Config {
                         .build())
                 .build();
     }
+
+    /**
+     * Shared presigner, thread-safe and reused for every presigned URL; closed with the context
+     */
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner() {
+        if (accessKey == null || accessKey.trim().isEmpty()) {
+            return null;
+        }
+
+        AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(accessKey, secretKey);
+
+        // Force path-style access for Contabo (bucket in path, not subdomain), same as s3Client
+        return S3Presigner.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .build();
+    }
 }
@@ -5,6 +5,7 @@ import app.ysp.dto.CreateUserRequest;
 import app.ysp.dto.UpdateUserRequest;
 import app.ysp.dto.UserResponse;
 import app.ysp.repo.UserRepository;
+import app.ysp.security.AuthorizationCache;
 import app.ysp.service.OneTimeLoginService;
 import app.ysp.service.SseHub;
 import jakarta.validation.Valid;
@@ -23,11 +24,13 @@ public class AdminController {
     private final UserRepository userRepository;
     private final OneTimeLoginService otlService;
     private final SseHub sseHub;
+    private final AuthorizationCache authorizationCache;
 
-    public AdminController(UserRepository userRepository, OneTimeLoginService otlService, SseHub sseHub) {
+    public AdminController(UserRepository userRepository, OneTimeLoginService otlService, SseHub sseHub, AuthorizationCache authorizationCache) {
         this.userRepository = userRepository;
         this.otlService = otlService;
         this.sseHub = sseHub;
+        this.authorizationCache = authorizationCache;
     }
 
     @GetMapping
@@ -120,6 +123,7 @@ public class AdminController {
                         u.setEmployeeNumber(req.getEmployeeNumber());
                     }
                     User saved = userRepository.save(u);
+                    authorizationCache.invalidateUser(saved.getEmail());
                     if (Boolean.TRUE.equals(req.getSendOneTimeLogin())) {
                         otlService.createAndEmailToken(saved.getId(), 1800);
                     }
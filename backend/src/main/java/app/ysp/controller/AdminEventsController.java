@@ -4,10 +4,14 @@ import app.ysp.service.SseHub;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/admin/events")
 @PreAuthorize("hasRole('ADMIN')")
@@ -19,9 +23,12 @@ public class AdminEventsController {
     }
 
     @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream() {
+    public SseEmitter stream(@RequestParam(name = "types", required = false) List<String> types,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(name = "lastEventId", required = false) String lastEventIdParam) {
         // 30 minutes timeout per connection
-        SseEmitter emitter = hub.subscribe(30L * 60 * 1000);
+        SseEmitter emitter = hub.subscribe(30L * 60 * 1000, null, types,
+                EventsController.parseEventId(lastEventIdHeader, lastEventIdParam));
         return emitter;
     }
 }
@@ -6,6 +6,7 @@ import app.ysp.dto.RoleDto;
 import app.ysp.dto.RolePermissionDto;
 import app.ysp.repo.RolePermissionRepository;
 import app.ysp.repo.RoleRepository;
+import app.ysp.security.AuthorizationCache;
 import org.springframework.http.ResponseEntity;
 import app.ysp.service.SseHub;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,11 +23,13 @@ public class AdminRolesController {
     private final RoleRepository roles;
     private final RolePermissionRepository perms;
     private final SseHub sseHub;
+    private final AuthorizationCache authorizationCache;
 
-    public AdminRolesController(RoleRepository roles, RolePermissionRepository perms, SseHub sseHub) {
+    public AdminRolesController(RoleRepository roles, RolePermissionRepository perms, SseHub sseHub, AuthorizationCache authorizationCache) {
         this.roles = roles;
         this.perms = perms;
         this.sseHub = sseHub;
+        this.authorizationCache = authorizationCache;
     }
 
     @GetMapping
@@ -41,6 +44,7 @@ public class AdminRolesController {
         r.setDescription(req.getDescription());
         r.setActive(req.getActive() == null ? true : req.getActive());
         r = roles.save(r);
+        authorizationCache.invalidateRoles();
         try { sseHub.broadcast(java.util.Map.of("type","roles.created","id", r.getId())); } catch (Exception ignored) {}
         try { sseHub.broadcast(java.util.Map.of("type","metrics.changed")); } catch (Exception ignored) {}
         return ResponseEntity.created(URI.create("/admin/roles/" + r.getId())).body(toDto(r));
@@ -54,6 +58,7 @@ public class AdminRolesController {
                     if (req.getDescription() != null) r.setDescription(req.getDescription());
                     if (req.getActive() != null) r.setActive(req.getActive());
                     Role saved = roles.save(r);
+                    authorizationCache.invalidateRoles();
                     try { sseHub.broadcast(java.util.Map.of("type","roles.updated","id", saved.getId())); } catch (Exception ignored) {}
                     try { sseHub.broadcast(java.util.Map.of("type","metrics.changed")); } catch (Exception ignored) {}
                     return ResponseEntity.ok(toDto(saved));
@@ -65,6 +70,7 @@ public class AdminRolesController {
     public ResponseEntity<?> delete(@PathVariable Long id) {
         if (!roles.existsById(id)) return ResponseEntity.notFound().build();
         roles.deleteById(id);
+        authorizationCache.invalidateRoles();
         return ResponseEntity.noContent().build();
     }
 
@@ -94,6 +100,7 @@ public class AdminRolesController {
                         perms.save(rp);
                     }
                     var out = perms.findByRole(r).stream().map(this::toDto).collect(Collectors.toList());
+                    authorizationCache.invalidateRoles();
                     try { sseHub.broadcast(java.util.Map.of("type","permissions.updated","roleId", r.getId())); } catch (Exception ignored) {}
                     try { sseHub.broadcast(java.util.Map.of("type","metrics.changed")); } catch (Exception ignored) {}
                     return ResponseEntity.ok(out);
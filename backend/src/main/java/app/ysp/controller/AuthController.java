@@ -7,6 +7,7 @@ import app.ysp.repo.UserRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
@@ -59,6 +60,16 @@ public class AuthController {
         return ResponseEntity.ok(resp);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth.getName() == null || "anonymousUser".equals(auth.getName())) return ResponseEntity.status(401).build();
+        if (authorization == null || !authorization.startsWith("Bearer ")) return ResponseEntity.status(401).build();
+        String token = authService.refreshToken(auth.getName(), authorization.substring(7));
+        if (token == null) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(new TokenResponse(token));
+    }
+
     @PostMapping("/password/update")
     public ResponseEntity<?> updatePassword(@Valid @RequestBody UpdatePasswordRequest req) {
         boolean ok = oneTimeLoginService.updatePasswordByToken(req.getToken(), req.getNewPassword());
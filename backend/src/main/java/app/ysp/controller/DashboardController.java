@@ -0,0 +1,29 @@
+package app.ysp.controller;
+
+import app.ysp.service.DashboardStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/programs/{id}")
+public class DashboardController {
+
+    private final DashboardStatsService dashboardStats;
+
+    public DashboardController(DashboardStatsService dashboardStats) {
+        this.dashboardStats = dashboardStats;
+    }
+
+    /**
+     * All dashboard counters of a program in one response
+     * GET /programs/{id}/dashboard-snapshot
+     */
+    @GetMapping("/dashboard-snapshot")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramMember(#id, authentication)")
+    public ResponseEntity<Map<String, Object>> snapshot(@PathVariable Long id) {
+        return ResponseEntity.ok(dashboardStats.snapshot(id));
+    }
+}
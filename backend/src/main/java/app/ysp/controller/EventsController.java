@@ -4,10 +4,14 @@ import app.ysp.service.SseHub;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/events")
 @PreAuthorize("isAuthenticated()")
@@ -18,8 +22,27 @@ public class EventsController {
         this.hub = hub;
     }
 
+    /**
+     * Stream events, optionally narrowed to programs (?programId=1,2) and
+     * event-type patterns (?types=inventory.*,visitations.created).
+     * Reconnecting clients send Last-Event-ID (or ?lastEventId= when reopening manually)
+     * to receive only the events they missed.
+     */
     @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter stream() {
-        return hub.subscribe(30L * 60 * 1000);
+    public SseEmitter stream(@RequestParam(name = "programId", required = false) List<Long> programIds,
+                             @RequestParam(name = "types", required = false) List<String> types,
+                             @RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(name = "lastEventId", required = false) String lastEventIdParam) {
+        return hub.subscribe(30L * 60 * 1000, programIds, types, parseEventId(lastEventIdHeader, lastEventIdParam));
+    }
+
+    static Long parseEventId(String header, String param) {
+        String raw = header != null && !header.isBlank() ? header : param;
+        if (raw == null || raw.isBlank()) return null;
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
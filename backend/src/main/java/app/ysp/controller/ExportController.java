@@ -0,0 +1,193 @@
+package app.ysp.controller;
+
+import app.ysp.entity.ExportJob;
+import app.ysp.repository.ExportJobRepository;
+import app.ysp.service.ExportJobService;
+import app.ysp.service.ExportService;
+import app.ysp.service.StorageService;
+import app.ysp.util.TabularWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+
+/**
+ * CSV/XLSX exports of UCR reports, phone logs, medication administrations, inventory transactions
+ * and visitations, for one program or (administrators) a whole region. GET streams the file in the
+ * response; POST .../jobs queues it and the file is fetched from /exports/jobs/{jobId} when done.
+ */
+@RestController
+public class ExportController {
+    private final ExportService exportService;
+    private final ExportJobService jobService;
+    private final ExportJobRepository jobs;
+    private final StorageService storageService;
+    private final Semaphore streams;
+
+    public ExportController(ExportService exportService,
+                            ExportJobService jobService,
+                            ExportJobRepository jobs,
+                            StorageService storageService,
+                            @Value("${app.exports.stream.max-concurrent:4}") int maxConcurrentStreams) {
+        this.exportService = exportService;
+        this.jobService = jobService;
+        this.jobs = jobs;
+        this.storageService = storageService;
+        this.streams = new Semaphore(Math.max(1, maxConcurrentStreams));
+    }
+
+    @GetMapping("/programs/{programId}/exports/{dataset}")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramManager(#programId, authentication)")
+    public ResponseEntity<StreamingResponseBody> exportProgram(
+            @PathVariable Long programId,
+            @PathVariable String dataset,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+        return stream(dataset, format, ExportService.Scope.program(programId, parseDate(from), parseDate(to)));
+    }
+
+    @PostMapping("/programs/{programId}/exports/{dataset}/jobs")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramManager(#programId, authentication)")
+    public ResponseEntity<?> queueProgram(
+            @PathVariable Long programId,
+            @PathVariable String dataset,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            Authentication auth) {
+        return queue(dataset, format, ExportService.Scope.program(programId, parseDate(from), parseDate(to)), auth);
+    }
+
+    @GetMapping("/exports/regions/{region}/{dataset}")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR')")
+    public ResponseEntity<StreamingResponseBody> exportRegion(
+            @PathVariable String region,
+            @PathVariable String dataset,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to) {
+        return stream(dataset, format, ExportService.Scope.region(region, parseDate(from), parseDate(to)));
+    }
+
+    @PostMapping("/exports/regions/{region}/{dataset}/jobs")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR')")
+    public ResponseEntity<?> queueRegion(
+            @PathVariable String region,
+            @PathVariable String dataset,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            Authentication auth) {
+        return queue(dataset, format, ExportService.Scope.region(region, parseDate(from), parseDate(to)), auth);
+    }
+
+    /**
+     * The caller's recent export jobs, newest first
+     */
+    @GetMapping("/exports/jobs")
+    @PreAuthorize("isAuthenticated()")
+    public List<Map<String, Object>> myJobs(Authentication auth) {
+        return jobs.findTop50ByRequestedByOrderByCreatedAtDesc(auth.getName()).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Status of a job; carries a signed downloadUrl once it is DONE
+     */
+    @GetMapping("/exports/jobs/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> job(@PathVariable Long jobId, Authentication auth) {
+        ExportJob job = jobs.findById(jobId).orElse(null);
+        if (job == null || !(Objects.equals(job.getRequestedBy(), auth.getName()) || isAdmin(auth))) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toResponse(job));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String dataset, String format, ExportService.Scope scope) {
+        validate(dataset, format);
+        // Each stream holds a database cursor and a request thread until the client has read it all
+        if (!streams.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many exports in progress, queue a job instead");
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.write(dataset, format, scope, out);
+            } finally {
+                streams.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TabularWriter.contentType(format)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(ExportService.fileName(dataset, scope, format)).build().toString())
+                .body(body);
+    }
+
+    private ResponseEntity<?> queue(String dataset, String format, ExportService.Scope scope, Authentication auth) {
+        validate(dataset, format);
+        ExportJob job = jobService.enqueue(dataset, format, scope, auth.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toResponse(job));
+    }
+
+    private Map<String, Object> toResponse(ExportJob job) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", job.getId());
+        out.put("dataset", job.getDataset());
+        out.put("format", job.getFormat());
+        out.put("programId", job.getProgramId());
+        out.put("region", job.getRegion());
+        out.put("from", job.getFromDate());
+        out.put("to", job.getToDate());
+        out.put("status", job.getStatus());
+        out.put("rowCount", job.getRowCount());
+        out.put("fileSize", job.getFileSize());
+        out.put("error", "FAILED".equals(job.getStatus()) ? job.getLastError() : null);
+        out.put("createdAt", job.getCreatedAt());
+        out.put("completedAt", job.getCompletedAt());
+        out.put("fileName", ExportService.fileName(job.getDataset(),
+                new ExportService.Scope(job.getProgramId(), job.getRegion(), job.getFromDate(), job.getToDate()), job.getFormat()));
+        out.put("downloadUrl", "DONE".equals(job.getStatus()) ? storageService.generatePresignedUrl(job.getFileUrl()) : null);
+        return out;
+    }
+
+    private static void validate(String dataset, String format) {
+        if (!ExportService.isDataset(dataset)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown dataset: " + dataset);
+        }
+        if (!ExportService.isFormat(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format);
+        }
+    }
+
+    private static LocalDate parseDate(String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date: " + s);
+        }
+    }
+
+    private static boolean isAdmin(Authentication auth) {
+        return auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_ADMINISTRATOR".equals(a.getAuthority()));
+    }
+}
@@ -6,6 +6,7 @@ import app.ysp.entity.Program;
 import app.ysp.repo.FirePlanRepository;
 import app.ysp.repo.FireDrillReportRepository;
 import app.ysp.repo.ProgramRepository;
+import app.ysp.service.FirePlanService;
 import app.ysp.service.SseHub;
 import app.ysp.util.JsonUtil;
 import org.springframework.data.domain.Page;
@@ -18,21 +19,26 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/programs/{id}/fire-plan")
 public class FirePlanController {
+    private static final Set<String> JSON_FIELDS = Set.of("staffAssignments", "residentStatus", "routeConfig");
+    private static final Pattern PATH_SEGMENT = Pattern.compile("[A-Za-z0-9_-]+");
 
     private final ProgramRepository programs;
     private final FirePlanRepository firePlans;
     private final FireDrillReportRepository drillReports;
     private final SseHub sseHub;
+    private final FirePlanService firePlanService;
 
-    public FirePlanController(ProgramRepository programs, FirePlanRepository firePlans, FireDrillReportRepository drillReports, SseHub sseHub) {
+    public FirePlanController(ProgramRepository programs, FirePlanRepository firePlans, FireDrillReportRepository drillReports, SseHub sseHub, FirePlanService firePlanService) {
         this.programs = programs;
         this.firePlans = firePlans;
         this.drillReports = drillReports;
         this.sseHub = sseHub;
+        this.firePlanService = firePlanService;
     }
 
     @GetMapping("/current")
@@ -96,40 +102,26 @@ public class FirePlanController {
     @PatchMapping("/current")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramManager(#id, authentication)")
     public ResponseEntity<?> updateCurrentPlan(@PathVariable("id") Long id, @RequestBody Map<String, Object> body) {
-        Optional<FirePlan> opt = firePlans.findActivePlan(id);
-        
-        // Auto-create plan if it doesn't exist
-        FirePlan plan;
-        if (opt.isEmpty()) {
-            Optional<Program> progOpt = programs.findById(id);
-            if (progOpt.isEmpty()) return ResponseEntity.notFound().build();
-            
-            plan = new FirePlan();
-            plan.setProgram(progOpt.get());
-            plan.setGeneratedDate(LocalDate.now());
-            plan.setStatus("Active");
-        } else {
-            plan = opt.get();
-        }
-        if (body.containsKey("totalStaff")) plan.setTotalStaff(Integer.parseInt(Objects.toString(body.get("totalStaff"), "0")));
-        if (body.containsKey("totalResidents")) plan.setTotalResidents(Integer.parseInt(Objects.toString(body.get("totalResidents"), "0")));
-        if (body.containsKey("specialAssignments")) plan.setSpecialAssignments(Integer.parseInt(Objects.toString(body.get("specialAssignments"), "0")));
-        if (body.containsKey("primaryRoute")) plan.setPrimaryRoute(Objects.toString(body.get("primaryRoute"), null));
-        if (body.containsKey("secondaryRoute")) plan.setSecondaryRoute(Objects.toString(body.get("secondaryRoute"), null));
-
-        if (body.containsKey("staffAssignments")) {
-            plan.setStaffAssignmentsJson(JsonUtil.serialize(body.get("staffAssignments")));
-        }
-
-        if (body.containsKey("residentStatus")) {
-            plan.setResidentStatusJson(JsonUtil.serialize(body.get("residentStatus")));
-        }
-
-        if (body.containsKey("routeConfig")) {
-            plan.setRouteConfigJson(JsonUtil.serialize(body.get("routeConfig")));
+        // Keys like "routeConfig.assemblyPoints" or "staffAssignments.2.status" set one path in place
+        Map<String, List<String>> paths = new LinkedHashMap<>();
+        for (String key : body.keySet()) {
+            if (key.indexOf('.') < 0) continue;
+            List<String> segments = List.of(key.split("\\.", -1));
+            if (!JSON_FIELDS.contains(segments.get(0)) || segments.size() < 2
+                    || !segments.stream().allMatch(seg -> PATH_SEGMENT.matcher(seg).matches())) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid path: " + key));
+            }
+            paths.put(key, segments);
+        }
+
+        FirePlan saved;
+        try {
+            Optional<FirePlan> updated = firePlanService.updateCurrentPlan(id, body, paths);
+            if (updated.isEmpty()) return ResponseEntity.notFound().build();
+            saved = updated.get();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
-
-        FirePlan saved = firePlans.save(plan);
         try { sseHub.broadcast(Map.of("type","programs.fireplan.updated","programId", id, "id", saved.getId())); } catch (Exception ignored) {}
         return ResponseEntity.ok(saved);
     }
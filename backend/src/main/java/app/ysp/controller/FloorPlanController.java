@@ -4,39 +4,31 @@ import app.ysp.entity.FirePlan;
 import app.ysp.entity.Program;
 import app.ysp.repo.FirePlanRepository;
 import app.ysp.repo.ProgramRepository;
+import app.ysp.service.ImageVariantService;
+import app.ysp.service.StorageService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 public class FloorPlanController {
 
     private final FirePlanRepository firePlans;
     private final ProgramRepository programs;
-    
-    // Directory to store floor plan images
-    private static final String UPLOAD_DIR = "/opt/ysp-app/uploads/floor-plans/";
+    private final StorageService storageService;
+    private final ImageVariantService imageVariants;
 
-    public FloorPlanController(FirePlanRepository firePlans, ProgramRepository programs) {
+    public FloorPlanController(FirePlanRepository firePlans, ProgramRepository programs, StorageService storageService, ImageVariantService imageVariants) {
         this.firePlans = firePlans;
         this.programs = programs;
-        
-        // Create upload directory if it doesn't exist
-        try {
-            Files.createDirectories(Paths.get(UPLOAD_DIR));
-        } catch (IOException e) {
-            System.err.println("Failed to create floor plans upload directory: " + e.getMessage());
-        }
+        this.storageService = storageService;
+        this.imageVariants = imageVariants;
     }
 
     @PostMapping("/floor-plans/upload")
@@ -60,21 +52,15 @@ public class FloorPlanController {
         }
 
         try {
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".png";
-            String filename = "floor-plan-" + programId + "-" + UUID.randomUUID() + extension;
-            
-            // Save file
-            Path filePath = Paths.get(UPLOAD_DIR + filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return the URL path
-            String imageUrl = "/uploads/floor-plans/" + filename;
-
-            return ResponseEntity.ok(Map.of("imageUrl", imageUrl, "filename", filename));
+            StorageService.StoredFile stored = storageService.store(file, "floor-plans/" + programId);
+            String filename = stored.key().substring(stored.key().lastIndexOf('/') + 1);
+            imageVariants.createVariants(stored, file);
+
+            // Return a URL the browser can load; PATCH stores it back in canonical form
+            String imageUrl = storageService.generatePresignedUrl(stored.url(), Duration.ofHours(24));
+            String previewUrl = storageService.generatePresignedUrl(storageService.variantUrl(stored.url(), ImageVariantService.LARGE), Duration.ofHours(24));
+
+            return ResponseEntity.ok(Map.of("imageUrl", imageUrl, "previewUrl", previewUrl, "filename", filename));
         } catch (IOException e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to upload file: " + e.getMessage()));
@@ -97,8 +83,10 @@ public class FloorPlanController {
         }
 
         FirePlan plan = planOpt.get();
+        String imageUrl = plan.getFloorPlanImageUrl();
         return ResponseEntity.ok(Map.of(
-            "imageUrl", plan.getFloorPlanImageUrl() != null ? plan.getFloorPlanImageUrl() : "",
+            "imageUrl", imageUrl != null ? storageService.generatePresignedUrl(imageUrl, Duration.ofHours(24)) : "",
+            "previewUrl", imageUrl != null ? storageService.generatePresignedUrl(storageService.variantUrl(imageUrl, ImageVariantService.LARGE), Duration.ofHours(24)) : "",
             "scale", plan.getFloorPlanScale() != null ? plan.getFloorPlanScale() : "1:100",
             "totalExits", plan.getFloorPlanTotalExits() != null ? plan.getFloorPlanTotalExits() : 6,
             "assemblyPoints", plan.getFloorPlanAssemblyPoints() != null ? plan.getFloorPlanAssemblyPoints() : 3,
@@ -132,7 +120,7 @@ public class FloorPlanController {
 
         // Update floor plan details
         if (body.containsKey("imageUrl")) {
-            plan.setFloorPlanImageUrl(String.valueOf(body.get("imageUrl")));
+            plan.setFloorPlanImageUrl(storageService.canonicalUrl(String.valueOf(body.get("imageUrl"))));
         }
         if (body.containsKey("scale")) {
             plan.setFloorPlanScale(String.valueOf(body.get("scale")));
@@ -127,7 +127,7 @@ public class LogbookController {
     
     /**
      * Search shift logs with filters
-     * GET /programs/{programId}/logbook/shift-logs/search?q=...&shiftType=...&status=...&startDate=...&endDate=...
+     * GET /programs/{programId}/logbook/shift-logs/search?q=...&shiftType=...&status=...&startDate=...&endDate=...&staff=...
      */
     @GetMapping("/shift-logs/search")
     public ResponseEntity<List<ShiftLogResponse>> searchShiftLogs(
@@ -136,9 +136,10 @@ public class LogbookController {
         @RequestParam(required = false) String shiftType,
         @RequestParam(required = false) String status,
         @RequestParam(required = false) LocalDate startDate,
-        @RequestParam(required = false) LocalDate endDate
+        @RequestParam(required = false) LocalDate endDate,
+        @RequestParam(required = false) String staff
     ) {
-        List<ShiftLogResponse> logs = shiftLogService.searchShiftLogs(programId, q, shiftType, status, startDate, endDate);
+        List<ShiftLogResponse> logs = shiftLogService.searchShiftLogs(programId, q, shiftType, status, startDate, endDate, staff);
         return ResponseEntity.ok(logs);
     }
 }
@@ -1,5 +1,6 @@
 package app.ysp.controller;
 
+import app.ysp.service.DashboardStatsService;
 import app.ysp.service.PhoneLogService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -17,9 +18,11 @@ import java.util.Map;
 public class PhoneLogController {
 
     private final PhoneLogService phoneLogService;
+    private final DashboardStatsService dashboardStats;
 
-    public PhoneLogController(PhoneLogService phoneLogService) {
+    public PhoneLogController(PhoneLogService phoneLogService, DashboardStatsService dashboardStats) {
         this.phoneLogService = phoneLogService;
+        this.dashboardStats = dashboardStats;
     }
 
     // ============ PHONE LOG QUERIES ============
@@ -151,7 +154,7 @@ public class PhoneLogController {
     @GetMapping("/statistics")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Map<String, Object>> getPhoneLogStatistics(@PathVariable Long programId) {
-        Map<String, Object> stats = phoneLogService.getPhoneLogStatistics(programId);
+        Map<String, Object> stats = dashboardStats.section(programId, DashboardStatsService.PHONE_LOGS);
         return ResponseEntity.ok(stats);
     }
 
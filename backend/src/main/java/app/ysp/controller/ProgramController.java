@@ -16,8 +16,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import app.ysp.security.AuthorizationCache;
 import app.ysp.service.SseHub;
+import app.ysp.service.ImageVariantService;
+import app.ysp.service.NumberAllocator;
 import app.ysp.service.StorageService;
+import app.ysp.service.ResidentSummaryService;
 import jakarta.persistence.EntityManager;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -36,9 +40,13 @@ public class ProgramController {
     private final SseHub sseHub;
     private final EntityManager entityManager;
     private final StorageService storageService;
+    private final ImageVariantService imageVariants;
+    private final NumberAllocator numberAllocator;
     private final ResidentDocumentRepository documents;
+    private final AuthorizationCache authorizationCache;
+    private final ResidentSummaryService residentSummaries;
 
-    public ProgramController(ProgramRepository programs, ProgramAssignmentRepository assignments, UserRepository users, ProgramResidentRepository residents, RegionRepository regions, SseHub sseHub, EntityManager entityManager, StorageService storageService, ResidentDocumentRepository documents) {
+    public ProgramController(ProgramRepository programs, ProgramAssignmentRepository assignments, UserRepository users, ProgramResidentRepository residents, RegionRepository regions, SseHub sseHub, EntityManager entityManager, StorageService storageService, ImageVariantService imageVariants, NumberAllocator numberAllocator, ResidentDocumentRepository documents, AuthorizationCache authorizationCache, ResidentSummaryService residentSummaries) {
         this.programs = programs;
         this.assignments = assignments;
         this.users = users;
@@ -47,7 +55,11 @@ public class ProgramController {
         this.sseHub = sseHub;
         this.entityManager = entityManager;
         this.storageService = storageService;
+        this.imageVariants = imageVariants;
+        this.numberAllocator = numberAllocator;
         this.documents = documents;
+        this.authorizationCache = authorizationCache;
+        this.residentSummaries = residentSummaries;
     }
 
     @GetMapping
@@ -155,6 +167,13 @@ public class ProgramController {
         }
     }
 
+    @GetMapping("/{id}/residents/stats")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramMember(#id, authentication)")
+    public ResponseEntity<?> getResidentsStats(@PathVariable Long id) {
+        if (!programs.existsById(id)) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(residentSummaries.programSummaries(id));
+    }
+
     @GetMapping("/{id}/residents/{residentPk}/stats")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getResidentStats(@PathVariable Long id, @PathVariable("residentPk") Long residentPk) {
@@ -164,66 +183,7 @@ public class ProgramController {
         if (pr.getProgram() == null || pr.getProgram().getId() == null || !Objects.equals(pr.getProgram().getId(), id)) {
             return ResponseEntity.notFound().build();
         }
-
-        java.util.Map<String, Object> stats = new java.util.HashMap<>();
-        
-        // Current week credits from most recent diary card
-        try {
-            Object result = entityManager.createNativeQuery(
-                "SELECT current_balance FROM points_diary_cards " +
-                "WHERE resident_id = :residentId " +
-                "ORDER BY week_start_date DESC LIMIT 1"
-            ).setParameter("residentId", residentPk).getSingleResult();
-            int totalCredits = result != null ? ((Number) result).intValue() : 0;
-            stats.put("totalCredits", totalCredits);
-        } catch (Exception e) {
-            stats.put("totalCredits", 0);
-        }
-
-        // Active repairs count (approved or pending_review, not revoked, not expired)
-        try {
-            Object result = entityManager.createNativeQuery(
-                "SELECT COUNT(*) FROM repair_interventions " +
-                "WHERE resident_id = :residentId " +
-                "AND status IN ('approved', 'pending_review') " +
-                "AND (repair_end_date IS NULL OR repair_end_date >= CURRENT_DATE)"
-            ).setParameter("residentId", residentPk).getSingleResult();
-            int activeRepairs = result != null ? ((Number) result).intValue() : 0;
-            System.out.println("DEBUG: Active repairs for resident " + residentPk + " = " + activeRepairs + " (result type: " + (result != null ? result.getClass().getName() : "null") + ")");
-            stats.put("activeRepairs", activeRepairs);
-        } catch (Exception e) {
-            System.err.println("ERROR: Failed to get active repairs count for resident " + residentPk + ": " + e.getMessage());
-            e.printStackTrace();
-            stats.put("activeRepairs", 0);
-        }
-
-        // Active watch days (days since current active watch started)
-        try {
-            Object result = entityManager.createNativeQuery(
-                "SELECT CURRENT_DATE - DATE(start_date_time) as days_active " +
-                "FROM watch_assignments " +
-                "WHERE resident_id = :residentId AND status = 'ACTIVE' " +
-                "ORDER BY start_date_time DESC LIMIT 1"
-            ).setParameter("residentId", residentPk).getSingleResult();
-            int sleepLogDays = result != null ? ((Number) result).intValue() : 0;
-            stats.put("sleepLogDays", sleepLogDays);
-        } catch (Exception e) {
-            stats.put("sleepLogDays", 0);
-        }
-
-        // Active medications count
-        try {
-            Object result = entityManager.createNativeQuery(
-                "SELECT COUNT(*) FROM resident_medications " +
-                "WHERE resident_id = :residentId AND status = 'ACTIVE'"
-            ).setParameter("residentId", residentPk).getSingleResult();
-            int medications = result != null ? ((Number) result).intValue() : 0;
-            stats.put("activeMedications", medications);
-        } catch (Exception e) {
-            stats.put("activeMedications", 0);
-        }
-
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(residentSummaries.residentSummary(id, residentPk));
     }
 
     @PutMapping("/{id}/residents/{residentPk}")
@@ -405,6 +365,7 @@ public class ProgramController {
             toSave.add(pa);
         }
         assignments.saveAll(toSave);
+        authorizationCache.invalidateProgram(id);
         try { sseHub.broadcast(java.util.Map.of("type","programs.assignments.updated","programId", id)); } catch (Exception ignored) {}
         return ResponseEntity.ok(Map.of("count", toSave.size()));
     }
@@ -426,10 +387,7 @@ public class ProgramController {
                     // Auto-generate 6-digit incremental residentId if not provided
                     String provided = body.getResidentId();
                     if (provided == null || provided.trim().isEmpty()) {
-                        Integer max = residents.findMaxNumericResidentForProgram(id);
-                        int next = (max == null ? 0 : max) + 1;
-                        String rid = String.format("%06d", next);
-                        body.setResidentId(rid);
+                        body.setResidentId(numberAllocator.nextResidentId(id));
                     }
                     ProgramResident saved = residents.save(body);
                     try { sseHub.broadcast(java.util.Map.of("type","programs.residents.added","programId", id, "id", saved.getId())); } catch (Exception ignored) {}
@@ -442,10 +400,8 @@ public class ProgramController {
     public ResponseEntity<?> nextResidentId(@PathVariable Long id) {
         Optional<Program> p = programs.findById(id);
         if (p.isEmpty()) return ResponseEntity.notFound().build();
-        Integer max = residents.findMaxNumericResidentForProgram(id);
-        int next = (max == null ? 0 : max) + 1;
-        String rid = String.format("%06d", next);
-        return ResponseEntity.ok(java.util.Map.of("nextId", rid));
+        // A suggestion only: nothing is reserved until a resident is created without an id
+        return ResponseEntity.ok(java.util.Map.of("nextId", numberAllocator.peekResidentId(id)));
     }
 
     @PostMapping("/{id}/residents/{residentPk}/profile-picture")
@@ -467,8 +423,10 @@ public class ProgramController {
                 storageService.deleteFile(pr.getProfilePictureUrl());
             }
 
-            // Upload new profile picture
-            String fileUrl = storageService.uploadFile(file, "resident-profiles");
+            // Upload new profile picture with its thumbnails
+            StorageService.StoredFile stored = storageService.store(file, "resident-profiles");
+            imageVariants.createVariants(stored, file);
+            String fileUrl = stored.url();
             pr.setProfilePictureUrl(fileUrl);
             ProgramResident saved = residents.save(pr);
 
@@ -480,6 +438,7 @@ public class ProgramController {
             Map<String, Object> response = new HashMap<>();
             response.put("fileUrl", presignedUrl);
             response.put("storageUrl", fileUrl);
+            response.put("variants", imageVariants.presignedVariants(fileUrl, java.time.Duration.ofHours(24)));
             response.put("message", "Profile picture uploaded successfully");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -493,7 +452,8 @@ public class ProgramController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getProfilePictureUrl(
             @PathVariable Long id,
-            @PathVariable("residentPk") Long residentPk) {
+            @PathVariable("residentPk") Long residentPk,
+            @RequestParam(value = "size", required = false) Integer size) {
         Optional<ProgramResident> opt = residents.findById(residentPk);
         if (opt.isEmpty()) return ResponseEntity.notFound().build();
         ProgramResident pr = opt.get();
@@ -506,6 +466,11 @@ public class ProgramController {
             return ResponseEntity.ok(java.util.Map.of("fileUrl", ""));
         }
 
+        // Smallest stored variant covering the requested display width, the original when none is requested
+        if (size != null && size > 0) {
+            profilePicUrl = storageService.variantUrl(profilePicUrl, size);
+        }
+
         // Generate presigned URL for secure access
         String presignedUrl = storageService.generatePresignedUrl(profilePicUrl, java.time.Duration.ofHours(24));
         return ResponseEntity.ok(java.util.Map.of("fileUrl", presignedUrl));
@@ -4,24 +4,27 @@ import app.ysp.entity.Program;
 import app.ysp.entity.ProgramUcrReport;
 import app.ysp.entity.ProgramUcrNotification;
 import app.ysp.entity.ProgramAssignment;
+import app.ysp.entity.UcrIssue;
 import app.ysp.repo.ProgramRepository;
 import app.ysp.repo.ProgramUcrReportRepository;
 import app.ysp.repo.ProgramUcrNotificationRepository;
 import app.ysp.repo.UserRepository;
 import app.ysp.repo.ProgramAssignmentRepository;
+import app.ysp.repo.UcrIssueRepository;
 import app.ysp.service.SseHub;
-import app.ysp.service.MailService;
+import app.ysp.service.MailOutboxService;
+import app.ysp.service.NotificationRenderer;
+import app.ysp.service.UcrIssueService;
+import app.ysp.service.DashboardStatsService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.time.LocalDate;
-import java.time.YearMonth;
 import java.util.*;
 
 @RestController
@@ -34,8 +37,11 @@ public class ProgramUcrController {
     private final SseHub sseHub;
     private final UserRepository users;
     private final ProgramAssignmentRepository assignments;
-    private final MailService mailService;
-    private final TemplateEngine templateEngine;
+    private final MailOutboxService mailOutbox;
+    private final NotificationRenderer notificationRenderer;
+    private final UcrIssueRepository issues;
+    private final UcrIssueService ucrIssueService;
+    private final DashboardStatsService dashboardStats;
 
     @Value("${app.brand.logoUrl:}")
     private String brandLogoUrl;
@@ -46,16 +52,22 @@ public class ProgramUcrController {
                                SseHub sseHub,
                                UserRepository users,
                                ProgramAssignmentRepository assignments,
-                               MailService mailService,
-                               TemplateEngine templateEngine) {
+                               MailOutboxService mailOutbox,
+                               NotificationRenderer notificationRenderer,
+                               UcrIssueRepository issues,
+                               UcrIssueService ucrIssueService,
+                               DashboardStatsService dashboardStats) {
         this.programs = programs;
         this.ucrs = ucrs;
         this.notifications = notifications;
         this.sseHub = sseHub;
         this.users = users;
         this.assignments = assignments;
-        this.mailService = mailService;
-        this.templateEngine = templateEngine;
+        this.mailOutbox = mailOutbox;
+        this.notificationRenderer = notificationRenderer;
+        this.issues = issues;
+        this.ucrIssueService = ucrIssueService;
+        this.dashboardStats = dashboardStats;
     }
 
     @GetMapping("/reports")
@@ -72,108 +84,57 @@ public class ProgramUcrController {
             @PathVariable("id") Long programId,
             @RequestParam(value = "q", required = false) String q,
             @RequestParam(value = "date", required = false) String dateStr,
+            @RequestParam(value = "from", required = false) String fromStr,
+            @RequestParam(value = "to", required = false) String toStr,
             @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "page", required = false, defaultValue = "0") int page,
             @RequestParam(value = "size", required = false, defaultValue = "5") int size
     ) {
         if (programId == null) return ResponseEntity.badRequest().build();
-        LocalDate date = null;
-        if (dateStr != null && !dateStr.isBlank()) {
-            try { date = LocalDate.parse(dateStr); } catch (Exception ignored) {}
+        LocalDate date = parseDate(dateStr);
+        LocalDate from = date != null ? date : parseDate(fromStr);
+        LocalDate to = date != null ? date : parseDate(toStr);
+        String query = (q==null||q.isBlank())? null : q;
+        String statusFilter = normalizeStatusFilter(status);
+        int pageSize = Math.min(Math.max(size,1), 200);
+
+        Map<String,Object> out = new HashMap<>();
+        List<ProgramUcrReport> content;
+        if (cursor != null && !cursor.isBlank()) {
+            // Keyset mode: cursor is "<reportDate>_<id>" of the last row of the previous page
+            int sep = cursor.lastIndexOf('_');
+            LocalDate afterDate = sep > 0 ? parseDate(cursor.substring(0, sep)) : null;
+            Long afterId = null;
+            try { afterId = sep > 0 ? Long.parseLong(cursor.substring(sep + 1)) : null; } catch (NumberFormatException ignored) {}
+            if (afterDate == null || afterId == null) return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+            content = ucrs.findByFiltersAfter(programId, query, from, to, statusFilter, afterDate, afterId, pageSize);
+        } else {
+            var p = ucrs.findByFilters(programId, query, from, to, statusFilter, PageRequest.of(Math.max(page,0), pageSize));
+            content = p.getContent();
+            out.put("totalElements", p.getTotalElements());
+            out.put("page", p.getNumber());
         }
-        var pageable = PageRequest.of(Math.max(page,0), Math.max(size,1));
-        var p = ucrs.findByFilters(programId, (q==null||q.isBlank())? null : q, date, pageable);
-        
-        // Apply status filter in Java if provided
-        java.util.List<ProgramUcrReport> filtered = p.getContent();
-        if (status != null && !status.isBlank() && !"All Status".equals(status)) {
-            filtered = filtered.stream()
-                .filter(r -> hasStatusMatch(r, status))
-                .collect(java.util.stream.Collectors.toList());
+        out.put("content", content);
+        out.put("size", pageSize);
+        if (content.size() == pageSize) {
+            ProgramUcrReport last = content.get(content.size() - 1);
+            out.put("nextCursor", last.getReportDate() + "_" + last.getId());
         }
-        
-        Map<String,Object> out = new HashMap<>();
-        out.put("content", filtered);
-        out.put("totalElements", p.getTotalElements());
-        out.put("page", p.getNumber());
-        out.put("size", p.getSize());
         return ResponseEntity.ok(out);
     }
-    
-    private boolean hasStatusMatch(ProgramUcrReport r, String status) {
-        String s = status.toLowerCase();
-        if ("normal".equals(s)) {
-            // Check if report has no Critical/High/Medium issues
-            return !hasAnyIssues(r);
-        }
-        // Check if any field has the specified status
-        return checkFieldForStatus(r.getSecurityRadiosCondition(), s) ||
-               checkFieldForStatus(r.getSecurityFlashlightsCondition(), s) ||
-               checkFieldForStatus(r.getSecurityMetalDetectorCondition(), s) ||
-               checkFieldForStatus(r.getSecurityBigSetKeysCondition(), s) ||
-               checkFieldForStatus(r.getSecurityFirstAidKitsCondition(), s) ||
-               checkFieldForStatus(r.getSecurityDeskComputerCondition(), s) ||
-               checkFieldForStatus(r.getAdminMeetingRoomsLockedCondition(), s) ||
-               checkFieldForStatus(r.getAdminDoorsSecureCondition(), s) ||
-               checkFieldForStatus(r.getInfraBackDoorCondition(), s) ||
-               checkFieldForStatus(r.getInfraEntranceExitDoorsCondition(), s) ||
-               checkFieldForStatus(r.getInfraSmokeDetectorsCondition(), s) ||
-               checkFieldForStatus(r.getInfraWindowsSecureCondition(), s) ||
-               checkFieldForStatus(r.getInfraLaundryAreaCondition(), s) ||
-               checkFieldForStatus(r.getInfraFireExtinguishersCondition(), s) ||
-               checkFieldForStatus(r.getInfraFireAlarmCondition(), s);
-    }
-    
-    private boolean checkFieldForStatus(String field, String status) {
-        return field != null && field.toLowerCase().contains(status);
+
+    private static LocalDate parseDate(String s) {
+        if (s == null || s.isBlank()) return null;
+        try { return LocalDate.parse(s); } catch (Exception ignored) { return null; }
     }
-    
-    private boolean hasAnyIssues(ProgramUcrReport r) {
-        return checkFieldForStatus(r.getSecurityRadiosCondition(), "critical") ||
-               checkFieldForStatus(r.getSecurityRadiosCondition(), "high") ||
-               checkFieldForStatus(r.getSecurityRadiosCondition(), "medium") ||
-               checkFieldForStatus(r.getSecurityFlashlightsCondition(), "critical") ||
-               checkFieldForStatus(r.getSecurityFlashlightsCondition(), "high") ||
-               checkFieldForStatus(r.getSecurityFlashlightsCondition(), "medium") ||
-               checkFieldForStatus(r.getSecurityMetalDetectorCondition(), "critical") ||
-               checkFieldForStatus(r.getSecurityMetalDetectorCondition(), "high") ||
-               checkFieldForStatus(r.getSecurityMetalDetectorCondition(), "medium") ||
-               checkFieldForStatus(r.getSecurityBigSetKeysCondition(), "critical") ||
-               checkFieldForStatus(r.getSecurityBigSetKeysCondition(), "high") ||
-               checkFieldForStatus(r.getSecurityBigSetKeysCondition(), "medium") ||
-               checkFieldForStatus(r.getSecurityFirstAidKitsCondition(), "critical") ||
-               checkFieldForStatus(r.getSecurityFirstAidKitsCondition(), "high") ||
-               checkFieldForStatus(r.getSecurityFirstAidKitsCondition(), "medium") ||
-               checkFieldForStatus(r.getSecurityDeskComputerCondition(), "critical") ||
-               checkFieldForStatus(r.getSecurityDeskComputerCondition(), "high") ||
-               checkFieldForStatus(r.getSecurityDeskComputerCondition(), "medium") ||
-               checkFieldForStatus(r.getAdminMeetingRoomsLockedCondition(), "critical") ||
-               checkFieldForStatus(r.getAdminMeetingRoomsLockedCondition(), "high") ||
-               checkFieldForStatus(r.getAdminMeetingRoomsLockedCondition(), "medium") ||
-               checkFieldForStatus(r.getAdminDoorsSecureCondition(), "critical") ||
-               checkFieldForStatus(r.getAdminDoorsSecureCondition(), "high") ||
-               checkFieldForStatus(r.getAdminDoorsSecureCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraBackDoorCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraBackDoorCondition(), "high") ||
-               checkFieldForStatus(r.getInfraBackDoorCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraEntranceExitDoorsCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraEntranceExitDoorsCondition(), "high") ||
-               checkFieldForStatus(r.getInfraEntranceExitDoorsCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraSmokeDetectorsCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraSmokeDetectorsCondition(), "high") ||
-               checkFieldForStatus(r.getInfraSmokeDetectorsCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraWindowsSecureCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraWindowsSecureCondition(), "high") ||
-               checkFieldForStatus(r.getInfraWindowsSecureCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraLaundryAreaCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraLaundryAreaCondition(), "high") ||
-               checkFieldForStatus(r.getInfraLaundryAreaCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraFireExtinguishersCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraFireExtinguishersCondition(), "high") ||
-               checkFieldForStatus(r.getInfraFireExtinguishersCondition(), "medium") ||
-               checkFieldForStatus(r.getInfraFireAlarmCondition(), "critical") ||
-               checkFieldForStatus(r.getInfraFireAlarmCondition(), "high") ||
-               checkFieldForStatus(r.getInfraFireAlarmCondition(), "medium");
+
+    // Archive status filter as stored in ucr_issue.severity, plus NORMAL and RESOLVED; null means no filter
+    private static String normalizeStatusFilter(String status) {
+        if (status == null || status.isBlank() || "All Status".equalsIgnoreCase(status)) return null;
+        String s = status.trim().toUpperCase();
+        if (s.startsWith("HIGH")) return "HIGH";
+        return s;
     }
 
     @GetMapping("/reports/{reportId}")
@@ -319,7 +280,7 @@ public class ProgramUcrController {
         // Map all fields from body to report
         mapFieldsToReport(r, body);
 
-        ProgramUcrReport saved = ucrs.save(r);
+        ProgramUcrReport saved = ucrIssueService.save(r);
         try { sseHub.broadcast(Map.of("type","programs.ucr.created","programId", id, "id", saved.getId())); } catch (Exception ignored) {}
         return ResponseEntity.ok(saved);
     }
@@ -350,7 +311,7 @@ public class ProgramUcrController {
         // Map all fields from body to report
         mapFieldsToReport(r, body);
 
-        ProgramUcrReport saved = ucrs.save(r);
+        ProgramUcrReport saved = ucrIssueService.save(r);
         try { sseHub.broadcast(Map.of("type","programs.ucr.updated","programId", id, "id", saved.getId())); } catch (Exception ignored) {}
         return ResponseEntity.ok(saved);
     }
@@ -358,15 +319,7 @@ public class ProgramUcrController {
     @GetMapping("/stats")
     @PreAuthorize("permitAll()")
     public ResponseEntity<?> stats(@PathVariable("id") Long programId) {
-        YearMonth now = YearMonth.now();
-        LocalDate start = now.atDay(1);
-        LocalDate end = now.atEndOfMonth();
-        Map<String, Object> out = new HashMap<>();
-        out.put("total", ucrs.countByProgramId(programId));
-        out.put("critical", ucrs.countAllIssues(programId)); // Count ALL unresolved issues (Critical + High + Medium)
-        out.put("high", ucrs.countHigh(programId));
-        out.put("monthCount", ucrs.countInRange(programId, start, end));
-        return ResponseEntity.ok(out);
+        return ResponseEntity.ok(dashboardStats.section(programId, DashboardStatsService.UCR));
     }
 
     @GetMapping("/open-issues")
@@ -376,7 +329,7 @@ public class ProgramUcrController {
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "5") int size
     ) {
-        var p = ucrs.findOpenIssues(programId, PageRequest.of(Math.max(0,page), Math.max(1,size)));
+        var p = issues.findOpenIssueReports(programId, PageRequest.of(Math.max(0,page), Math.max(1,size)));
         Map<String,Object> out = new HashMap<>();
         out.put("content", p.getContent());
         out.put("totalElements", p.getTotalElements());
@@ -398,11 +351,7 @@ public class ProgramUcrController {
         
         if (issueField != null && !issueField.isBlank()) {
             // Resolve specific issue
-            String current = report.getResolvedIssues();
-            java.util.Set<String> resolved = new java.util.HashSet<>();
-            if (current != null && !current.isBlank()) {
-                resolved.addAll(java.util.Arrays.asList(current.split(",")));
-            }
+            java.util.Set<String> resolved = UcrIssueService.resolvedFields(report);
             resolved.add(issueField);
             report.setResolvedIssues(String.join(",", resolved));
             
@@ -418,48 +367,28 @@ public class ProgramUcrController {
             report.setResolvedAt(java.time.LocalDateTime.now());
         }
         
-        ucrs.save(report);
+        ucrIssueService.save(report);
+        try { sseHub.broadcast(Map.of("type","programs.ucr.resolved","programId", programId, "id", report.getId())); } catch (Exception ignored) {}
         return ResponseEntity.ok(report);
     }
     
     private boolean checkAllIssuesResolved(ProgramUcrReport r, java.util.Set<String> resolved) {
         // Check if all Critical/High/Medium issues are resolved
-        String[] fields = {
-            "securityRadios", "securityFlashlights", "securityMetalDetector",
-            "securityBigSetKeys", "securityFirstAidKits", "securityDeskComputer",
-            "adminMeetingRoomsLocked", "adminDoorsSecure",
-            "infraBackDoor", "infraEntranceExitDoors", "infraSmokeDetectors",
-            "infraWindowsSecure", "infraLaundryArea", "infraFireExtinguishers", "infraFireAlarm"
-        };
-        
-        for (String field : fields) {
-            String condition = getConditionValue(r, field);
-            if (condition != null && (condition.toLowerCase().contains("critical") || 
-                condition.toLowerCase().contains("high") || 
-                condition.toLowerCase().contains("medium"))) {
-                if (!resolved.contains(field)) {
-                    return false;
-                }
+        for (Map.Entry<String, String> e : r.issueConditions().entrySet()) {
+            if (UcrIssue.Severity.of(e.getValue()) != null && !resolved.contains(e.getKey())) {
+                return false;
             }
         }
         return true;
     }
-    
-    private String getConditionValue(ProgramUcrReport r, String field) {
-        try {
-            String methodName = "get" + field.substring(0,1).toUpperCase() + field.substring(1) + "Condition";
-            var method = ProgramUcrReport.class.getMethod(methodName);
-            return (String) method.invoke(r);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 
     @GetMapping("/monthly-chart")
     @PreAuthorize("permitAll()")
     public ResponseEntity<?> monthlyChart(@PathVariable("id") Long programId, @RequestParam(value = "year", defaultValue = "0") int year) {
         if (year <= 0) year = java.time.Year.now().getValue();
-        List<Object[]> rawData = ucrs.findMonthlyIssueCounts(programId, year);
+        LocalDate start = LocalDate.of(year, 1, 1);
+        LocalDate end = LocalDate.of(year, 12, 31);
+        List<Object[]> rawData = issues.findMonthlyIssueCounts(programId, start, end);
         
         // Initialize arrays for 12 months
         int[] critical = new int[12];
@@ -486,7 +415,7 @@ public class ProgramUcrController {
         }
         
         // Get resolved counts by month
-        List<Object[]> resolvedData = ucrs.findResolvedCountsByMonth(programId, year);
+        List<Object[]> resolvedData = issues.findResolvedCountsByMonth(programId, start, end);
         for (Object[] row : resolvedData) {
             int month = ((Number) row[0]).intValue();
             int count = ((Number) row[1]).intValue();
@@ -625,14 +554,10 @@ public class ProgramUcrController {
         context.setVariable("currentYear", java.time.Year.now().getValue());
 
         // Render template
-        String html = templateEngine.process("ucr-notification", context);
+        String html = notificationRenderer.render("ucr-notification", context);
 
-        // Send email via MailService (Mailpit-backed)
-        for (String to : emails) {
-            try {
-                mailService.sendRawHtml(to, finalSubject, html);
-            } catch (Exception ignored) {}
-        }
+        // Queue email through the outbox; the dispatcher delivers it asynchronously
+        mailOutbox.enqueue(emails, finalSubject, html);
 
         // Persist notification record
         ProgramUcrNotification notif = new ProgramUcrNotification();
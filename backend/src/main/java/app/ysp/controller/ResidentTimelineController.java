@@ -0,0 +1,72 @@
+package app.ysp.controller;
+
+import app.ysp.entity.ProgramResident;
+import app.ysp.repo.ProgramResidentRepository;
+import app.ysp.service.ResidentTimelineService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/programs/{programId}/residents/{residentPk}/timeline")
+public class ResidentTimelineController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ResidentTimelineService timelineService;
+    private final ProgramResidentRepository residents;
+
+    public ResidentTimelineController(ResidentTimelineService timelineService, ProgramResidentRepository residents) {
+        this.timelineService = timelineService;
+        this.residents = residents;
+    }
+
+    /**
+     * Stream a resident's timeline, newest first, as NDJSON. The last line carries the cursor
+     * of the next page. sources is a comma-separated subset of
+     * diary_card,medication,phone_log,repair,visitation,watch.
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramMember(#programId, authentication)")
+    public ResponseEntity<StreamingResponseBody> timeline(
+            @PathVariable Long programId,
+            @PathVariable Long residentPk,
+            @RequestParam(value = "sources", required = false) String sources,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        ProgramResident pr = residents.findById(residentPk)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Resident not found"));
+        if (pr.getProgram() == null || !Objects.equals(pr.getProgram().getId(), programId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Resident not found");
+        }
+
+        Set<String> selected = new LinkedHashSet<>();
+        if (sources != null && !sources.isBlank()) {
+            for (String s : sources.split(",")) {
+                String source = s.trim().toLowerCase();
+                if (source.isEmpty()) continue;
+                if (!ResidentTimelineService.isSource(source)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown source: " + source);
+                }
+                selected.add(source);
+            }
+        }
+        // Reject a bad cursor before the response is committed to streaming
+        try {
+            ResidentTimelineService.validateCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        int pageSize = Math.min(Math.max(limit, 1), 500);
+        StreamingResponseBody body = out -> timelineService.stream(residentPk, selected, cursor, pageSize, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,57 @@
+package app.ysp.controller;
+
+import app.ysp.service.ProgramSearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/programs/{programId}/search")
+public class SearchController {
+
+    private final ProgramSearchService searchService;
+
+    public SearchController(ProgramSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Search logbook, phone log, visitation, repair and inventory records of a program.
+     * modules is a comma-separated subset (logbook,phone,visitation,repair,inventory);
+     * pass the returned nextCursor as cursor to get the next page.
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_ADMINISTRATOR') or @securityService.isProgramMember(#programId, authentication)")
+    public ResponseEntity<?> search(
+            @PathVariable Long programId,
+            @RequestParam("q") String q,
+            @RequestParam(value = "modules", required = false) String modules,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        String text = q != null ? q.trim() : "";
+        if (text.length() < 2) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Search text must be at least 2 characters"));
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        if (modules != null && !modules.isBlank()) {
+            for (String m : modules.split(",")) {
+                String module = m.trim().toLowerCase();
+                if (module.isEmpty()) continue;
+                if (!ProgramSearchService.isModule(module)) {
+                    return ResponseEntity.badRequest().body(Map.of("message", "Unknown module: " + module));
+                }
+                selected.add(module);
+            }
+        }
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        try {
+            return ResponseEntity.ok(searchService.search(programId, text, selected, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
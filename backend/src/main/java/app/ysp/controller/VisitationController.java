@@ -1,5 +1,6 @@
 package app.ysp.controller;
 
+import app.ysp.service.DashboardStatsService;
 import app.ysp.service.VisitationService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -17,9 +18,11 @@ import java.util.Map;
 public class VisitationController {
 
     private final VisitationService visitationService;
+    private final DashboardStatsService dashboardStats;
 
-    public VisitationController(VisitationService visitationService) {
+    public VisitationController(VisitationService visitationService, DashboardStatsService dashboardStats) {
         this.visitationService = visitationService;
+        this.dashboardStats = dashboardStats;
     }
 
     // ============ VISITATION QUERIES ============
@@ -128,7 +131,7 @@ public class VisitationController {
     @GetMapping("/statistics")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Map<String, Object>> getVisitationStatistics(@PathVariable Long programId) {
-        Map<String, Object> stats = visitationService.getVisitationStatistics(programId);
+        Map<String, Object> stats = dashboardStats.section(programId, DashboardStatsService.VISITATION);
         return ResponseEntity.ok(stats);
     }
 
@@ -5,6 +5,7 @@ import app.ysp.dto.WatchAssignmentRequest;
 import app.ysp.dto.WatchAssignmentResponse;
 import app.ysp.dto.WatchLogEntryRequest;
 import app.ysp.dto.WatchLogEntryResponse;
+import app.ysp.service.DashboardStatsService;
 import app.ysp.service.WatchService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,9 +21,11 @@ import java.util.Map;
 public class WatchController {
 
     private final WatchService watchService;
+    private final DashboardStatsService dashboardStats;
 
-    public WatchController(WatchService watchService) {
+    public WatchController(WatchService watchService, DashboardStatsService dashboardStats) {
         this.watchService = watchService;
+        this.dashboardStats = dashboardStats;
     }
 
     // ============ WATCH ASSIGNMENTS ============
@@ -76,7 +79,7 @@ public class WatchController {
     @GetMapping("/statistics")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Map<String, Object>> getWatchStatistics(@PathVariable Long programId) {
-        Map<String, Object> stats = watchService.getWatchStatistics(programId);
+        Map<String, Object> stats = dashboardStats.section(programId, DashboardStatsService.WATCHES);
         return ResponseEntity.ok(stats);
     }
 
@@ -6,7 +6,8 @@ import jakarta.persistence.*;
 @Table(name = "census_entry")
 public class CensusEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "census_entry_id_seq")
+    @SequenceGenerator(name = "census_entry_id_seq", sequenceName = "census_entry_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -2,6 +2,8 @@ package app.ysp.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
@@ -66,7 +68,8 @@ public class FireDrillReport {
     @Column(name = "recommendations", columnDefinition = "text")
     private String recommendations;
 
-    @Column(name = "route_performance_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "route_performance_json", columnDefinition = "jsonb")
     private String routePerformanceJson;
 
     @Column(name = "certification_complete")
@@ -1,6 +1,8 @@
 package app.ysp.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -39,13 +41,16 @@ public class FirePlan {
     @Column(name = "status")
     private String status; // Active, Archived
 
-    @Column(name = "staff_assignments_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "staff_assignments_json", columnDefinition = "jsonb")
     private String staffAssignmentsJson;
 
-    @Column(name = "resident_status_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "resident_status_json", columnDefinition = "jsonb")
     private String residentStatusJson;
 
-    @Column(name = "route_config_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "route_config_json", columnDefinition = "jsonb")
     private String routeConfigJson;
 
     // Floor Plan fields
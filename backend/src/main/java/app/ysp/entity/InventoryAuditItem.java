@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 public class InventoryAuditItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_audit_items_id_seq")
+    @SequenceGenerator(name = "inventory_audit_items_id_seq", sequenceName = "inventory_audit_items_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
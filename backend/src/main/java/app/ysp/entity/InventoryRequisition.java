@@ -11,7 +11,8 @@ import java.time.LocalDate;
 public class InventoryRequisition {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_requisitions_id_seq")
+    @SequenceGenerator(name = "inventory_requisitions_id_seq", sequenceName = "inventory_requisitions_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -7,7 +7,8 @@ import java.time.Instant;
 @Table(name = "medication_audit_counts")
 public class MedicationAuditCount {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medication_audit_counts_id_seq")
+    @SequenceGenerator(name = "medication_audit_counts_id_seq", sequenceName = "medication_audit_counts_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,8 @@
 package app.ysp.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.Instant;
 import java.time.LocalDate;
 
@@ -28,12 +30,25 @@ public class PointsDiaryCard {
     @Column(name = "starting_points")
     private Integer startingPoints = 0;
 
-    @Column(name = "daily_points_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "daily_points_json", columnDefinition = "jsonb")
     private String dailyPointsJson; // JSON with daily points by shift and repair status
 
-    @Column(name = "daily_redemptions_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "daily_redemptions_json", columnDefinition = "jsonb")
     private String dailyRedemptionsJson; // JSON storing daily redemptions per day
 
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "day_points")
+    private int[] dayPoints; // points earned per day (0-6), derived from dailyPointsJson
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "day_redemptions")
+    private int[] dayRedemptions; // points redeemed per day (0-6), null when dailyRedemptionsJson is absent
+
+    @Column(name = "approved_points_redeemed", nullable = false)
+    private Integer approvedPointsRedeemed = 0; // sum of approved redemptions linked to this card
+
     @Column(name = "total_points_earned")
     private Integer totalPointsEarned = 0;
 
@@ -74,6 +89,15 @@ public class PointsDiaryCard {
     public String getDailyRedemptionsJson() { return dailyRedemptionsJson; }
     public void setDailyRedemptionsJson(String dailyRedemptionsJson) { this.dailyRedemptionsJson = dailyRedemptionsJson; }
 
+    public int[] getDayPoints() { return dayPoints; }
+    public void setDayPoints(int[] dayPoints) { this.dayPoints = dayPoints; }
+
+    public int[] getDayRedemptions() { return dayRedemptions; }
+    public void setDayRedemptions(int[] dayRedemptions) { this.dayRedemptions = dayRedemptions; }
+
+    public Integer getApprovedPointsRedeemed() { return approvedPointsRedeemed; }
+    public void setApprovedPointsRedeemed(Integer approvedPointsRedeemed) { this.approvedPointsRedeemed = approvedPointsRedeemed; }
+
     public Integer getTotalPointsEarned() { return totalPointsEarned; }
     public void setTotalPointsEarned(Integer totalPointsEarned) { this.totalPointsEarned = totalPointsEarned; }
 
@@ -2,6 +2,8 @@ package app.ysp.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -196,8 +198,9 @@ public class ProgramUcrReport {
     @Column(name = "chore_laundry_room_clean_comments")
     private String choreLaundryRoomCleanComments;
 
-    // Room searches as JSONB array (stored as TEXT to avoid Hibernate bytea issues)
-    @Column(name = "room_searches")
+    // Room searches as a JSONB array
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "room_searches", columnDefinition = "jsonb")
     private String roomSearches;
 
     // Additional comments
@@ -257,6 +260,29 @@ public class ProgramUcrReport {
         return "Normal";
     }
 
+    /**
+     * Condition values of the fields tracked as individual issues, keyed by the field name used in resolvedIssues
+     */
+    public java.util.Map<String, String> issueConditions() {
+        java.util.Map<String, String> m = new java.util.LinkedHashMap<>();
+        m.put("securityRadios", securityRadiosCondition);
+        m.put("securityFlashlights", securityFlashlightsCondition);
+        m.put("securityMetalDetector", securityMetalDetectorCondition);
+        m.put("securityBigSetKeys", securityBigSetKeysCondition);
+        m.put("securityFirstAidKits", securityFirstAidKitsCondition);
+        m.put("securityDeskComputer", securityDeskComputerCondition);
+        m.put("adminMeetingRoomsLocked", adminMeetingRoomsLockedCondition);
+        m.put("adminDoorsSecure", adminDoorsSecureCondition);
+        m.put("infraBackDoor", infraBackDoorCondition);
+        m.put("infraEntranceExitDoors", infraEntranceExitDoorsCondition);
+        m.put("infraSmokeDetectors", infraSmokeDetectorsCondition);
+        m.put("infraWindowsSecure", infraWindowsSecureCondition);
+        m.put("infraLaundryArea", infraLaundryAreaCondition);
+        m.put("infraFireExtinguishers", infraFireExtinguishersCondition);
+        m.put("infraFireAlarm", infraFireAlarmCondition);
+        return m;
+    }
+
     /**
      * Generate a brief summary of issues for display in tables/lists
      */
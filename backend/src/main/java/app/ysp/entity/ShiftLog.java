@@ -1,6 +1,8 @@
 package app.ysp.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.Instant;
 import java.time.LocalDate;
 
@@ -50,10 +52,12 @@ public class ShiftLog {
     private String shiftSummary;
     
     // JSON fields
-    @Column(name = "staff_assignments_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "staff_assignments_json", columnDefinition = "jsonb")
     private String staffAssignmentsJson;
     
-    @Column(name = "equipment_counts_json", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "equipment_counts_json", columnDefinition = "jsonb")
     private String equipmentCountsJson;
     
     // Certification
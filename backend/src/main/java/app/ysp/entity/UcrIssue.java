@@ -0,0 +1,80 @@
+package app.ysp.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized Critical/High/Medium condition of a UCR report field, kept in sync by UcrIssueService
+ */
+@Entity
+@Table(name = "ucr_issue")
+public class UcrIssue {
+
+    public enum Severity {
+        CRITICAL, HIGH, MEDIUM;
+
+        /**
+         * Severity of a free-text condition value, null when it is not an issue
+         */
+        public static Severity of(String condition) {
+            if (condition == null) return null;
+            String c = condition.toLowerCase();
+            if (c.contains("critical")) return CRITICAL;
+            if (c.contains("high")) return HIGH;
+            if (c.contains("medium")) return MEDIUM;
+            return null;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_id", nullable = false)
+    private Long reportId;
+
+    @Column(name = "program_id", nullable = false)
+    private Long programId;
+
+    @Column(name = "report_date", nullable = false)
+    private LocalDate reportDate;
+
+    @Column(name = "field", nullable = false, length = 64)
+    private String field;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false, length = 10)
+    private Severity severity;
+
+    @Column(name = "resolved", nullable = false)
+    private Boolean resolved = false;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getReportId() { return reportId; }
+    public void setReportId(Long reportId) { this.reportId = reportId; }
+
+    public Long getProgramId() { return programId; }
+    public void setProgramId(Long programId) { this.programId = programId; }
+
+    public LocalDate getReportDate() { return reportDate; }
+    public void setReportDate(LocalDate reportDate) { this.reportDate = reportDate; }
+
+    public String getField() { return field; }
+    public void setField(String field) { this.field = field; }
+
+    public Severity getSeverity() { return severity; }
+    public void setSeverity(Severity severity) { this.severity = severity; }
+
+    public Boolean getResolved() { return resolved; }
+    public void setResolved(Boolean resolved) { this.resolved = resolved; }
+
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+}
@@ -8,7 +8,8 @@ import java.time.Instant;
 @Table(name = "watch_log_entries")
 public class WatchLogEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "watch_log_entries_id_seq")
+    @SequenceGenerator(name = "watch_log_entries_id_seq", sequenceName = "watch_log_entries_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -2,8 +2,10 @@ package app.ysp.repo;
 
 import app.ysp.entity.FirePlan;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 import java.util.List;
 
@@ -17,4 +19,24 @@ public interface FirePlanRepository extends JpaRepository<FirePlan, Long> {
 
     @Query("select f from FirePlan f where f.id = :id and f.program.id = :programId")
     Optional<FirePlan> findByIdAndProgramId(@Param("id") Long id, @Param("programId") Long programId);
+
+    // Set one path of a JSON document in place; :path is a text[] literal such as {routes,0,name},
+    // :empty the document ({} or []) to start from when the column is null
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE fire_plans SET staff_assignments_json = jsonb_set(COALESCE(staff_assignments_json, CAST(:empty AS jsonb)), " +
+                   "CAST(:path AS text[]), CAST(:value AS jsonb), true), updated_at = now() WHERE id = :id", nativeQuery = true)
+    int setStaffAssignmentsPath(@Param("id") Long id, @Param("path") String path, @Param("value") String value, @Param("empty") String empty);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE fire_plans SET resident_status_json = jsonb_set(COALESCE(resident_status_json, CAST(:empty AS jsonb)), " +
+                   "CAST(:path AS text[]), CAST(:value AS jsonb), true), updated_at = now() WHERE id = :id", nativeQuery = true)
+    int setResidentStatusPath(@Param("id") Long id, @Param("path") String path, @Param("value") String value, @Param("empty") String empty);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE fire_plans SET route_config_json = jsonb_set(COALESCE(route_config_json, CAST(:empty AS jsonb)), " +
+                   "CAST(:path AS text[]), CAST(:value AS jsonb), true), updated_at = now() WHERE id = :id", nativeQuery = true)
+    int setRouteConfigPath(@Param("id") Long id, @Param("path") String path, @Param("value") String value, @Param("empty") String empty);
 }
@@ -3,6 +3,9 @@ package app.ysp.repo;
 import app.ysp.domain.MfaCode;
 import app.ysp.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -10,4 +13,11 @@ import java.util.Optional;
 public interface MfaCodeRepository extends JpaRepository<MfaCode, Long> {
     Optional<MfaCode> findTopByUserAndUsedFalseAndExpiresAtAfterOrderByIdDesc(User user, Instant now);
     Optional<MfaCode> findTopByUserAndCodeAndUsedFalseAndExpiresAtAfterOrderByIdDesc(User user, String code, Instant now);
+
+    // Delete up to :limit codes that expired before :cutoff. Used codes have no use timestamp and
+    // expire within minutes of being sent, so their expiry also bounds their grace period.
+    @Modifying
+    @Query(value = "DELETE FROM mfa_codes WHERE id IN (SELECT id FROM mfa_codes " +
+                   "WHERE expires_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteSpentBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -3,10 +3,22 @@ package app.ysp.repo;
 import app.ysp.domain.OneTimeLogin;
 import app.ysp.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.Optional;
 
 public interface OneTimeLoginRepository extends JpaRepository<OneTimeLogin, Long> {
     Optional<OneTimeLogin> findTopByUserAndTokenHashAndUsedAtIsNullAndExpiresAtAfterOrderByIdDesc(User user, String tokenHash, Instant now);
+
+    // Uses idx_otl_token_hash
+    Optional<OneTimeLogin> findTopByTokenHashAndUsedAtIsNullAndExpiresAtAfterOrderByIdDesc(String tokenHash, Instant now);
+
+    // Delete up to :limit links that expired or were used before :cutoff
+    @Modifying
+    @Query(value = "DELETE FROM one_time_logins WHERE id IN (SELECT id FROM one_time_logins " +
+                   "WHERE expires_at < :cutoff OR used_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteSpentBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -16,4 +16,10 @@ public interface ProgramAssignmentRepository extends JpaRepository<ProgramAssign
 
     @Query("select distinct pa.program.id from ProgramAssignment pa where lower(pa.userEmail) = lower(:email)")
     List<Long> findProgramIdsByUserEmail(@Param("email") String email);
+
+    @Query("select pa.roleType from ProgramAssignment pa where pa.program.id = :programId and lower(pa.userEmail) = lower(:email)")
+    List<String> findRoleTypesByProgramAndEmail(@Param("programId") Long programId, @Param("email") String email);
+
+    @Query("select pa.program.id, pa.roleType from ProgramAssignment pa where lower(pa.userEmail) = lower(:email)")
+    List<Object[]> findProgramRolesByEmail(@Param("email") String email);
 }
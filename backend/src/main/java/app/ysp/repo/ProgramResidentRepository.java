@@ -14,4 +14,6 @@ public interface ProgramResidentRepository extends JpaRepository<ProgramResident
 
     @Query(value = "SELECT max(resident_id::int) FROM program_residents WHERE program_id = :programId AND resident_id ~ '^[0-9]+'", nativeQuery = true)
     Integer findMaxNumericResidentForProgram(@Param("programId") Long programId);
+
+    boolean existsByProgram_IdAndResidentId(Long programId, String residentId);
 }
@@ -3,9 +3,17 @@ package app.ysp.repo;
 import app.ysp.domain.Role;
 import app.ysp.domain.RolePermission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface RolePermissionRepository extends JpaRepository<RolePermission, Long> {
     List<RolePermission> findByRole(Role role);
+
+    @Query("select rp.access from RolePermission rp where rp.role.name = :roleName and lower(rp.module) = lower(:module) order by rp.id")
+    List<String> findAccessByRoleNameAndModule(@Param("roleName") String roleName, @Param("module") String module);
+
+    @Query("select rp.module, rp.access from RolePermission rp where rp.role.name = :roleName order by rp.id")
+    List<Object[]> findModuleAccessByRoleName(@Param("roleName") String roleName);
 }
@@ -0,0 +1,47 @@
+package app.ysp.repo;
+
+import app.ysp.entity.ProgramUcrReport;
+import app.ysp.entity.UcrIssue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UcrIssueRepository extends JpaRepository<UcrIssue, Long> {
+    List<UcrIssue> findByReportId(Long reportId);
+
+    // Count ALL individual unresolved issues (Critical + High + Medium)
+    @Query("select count(i) from UcrIssue i where i.programId = :programId and i.resolved = false")
+    long countUnresolved(@Param("programId") Long programId);
+
+    // Reports whose worst unresolved issue is High
+    @Query("select count(distinct i.reportId) from UcrIssue i where i.programId = :programId and i.resolved = false " +
+           "and i.severity = app.ysp.entity.UcrIssue.Severity.HIGH " +
+           "and not exists (select 1 from UcrIssue c where c.reportId = i.reportId and c.resolved = false " +
+           "and c.severity = app.ysp.entity.UcrIssue.Severity.CRITICAL)")
+    long countHighReports(@Param("programId") Long programId);
+
+    @Query(value = "select r from ProgramUcrReport r where r.program.id = :programId and exists " +
+                   "(select 1 from UcrIssue i where i.reportId = r.id and i.programId = :programId and i.resolved = false) " +
+                   "order by r.reportDate desc, r.id desc",
+           countQuery = "select count(distinct i.reportId) from UcrIssue i where i.programId = :programId and i.resolved = false")
+    Page<ProgramUcrReport> findOpenIssueReports(@Param("programId") Long programId, Pageable pageable);
+
+    // [month, severity, count] of all issues raised in a date range
+    @Query(value = "SELECT EXTRACT(MONTH FROM i.report_date)::int AS month, i.severity, COUNT(*) AS cnt " +
+                   "FROM ucr_issue i WHERE i.program_id = :programId AND i.report_date BETWEEN :start AND :end " +
+                   "GROUP BY month, i.severity ORDER BY month", nativeQuery = true)
+    List<Object[]> findMonthlyIssueCounts(@Param("programId") Long programId, @Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // [month, count] of resolved issues by report month in a date range
+    @Query(value = "SELECT EXTRACT(MONTH FROM i.report_date)::int AS month, COUNT(*) AS cnt " +
+                   "FROM ucr_issue i WHERE i.program_id = :programId AND i.report_date BETWEEN :start AND :end AND i.resolved = true " +
+                   "GROUP BY month ORDER BY month", nativeQuery = true)
+    List<Object[]> findResolvedCountsByMonth(@Param("programId") Long programId, @Param("start") LocalDate start, @Param("end") LocalDate end);
+}
@@ -1,6 +1,7 @@
 package app.ysp.repo;
 
 import app.ysp.entity.WatchAssignment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,11 +11,13 @@ import java.util.Optional;
 
 public interface WatchAssignmentRepository extends JpaRepository<WatchAssignment, Long> {
 
-    // Find all watches for a program
+    // Find all watches for a program (list queries fetch the associations the response mapper reads)
+    @EntityGraph(attributePaths = {"resident", "program", "authorizedByClinician", "endedByStaff"})
     @Query("SELECT w FROM WatchAssignment w WHERE w.program.id = :programId ORDER BY w.startDateTime DESC")
     List<WatchAssignment> findByProgramIdOrderByStartDateDesc(@Param("programId") Long programId);
 
     // Find active watches for a program
+    @EntityGraph(attributePaths = {"resident", "program", "authorizedByClinician", "endedByStaff"})
     @Query("SELECT w FROM WatchAssignment w WHERE w.program.id = :programId AND w.status = 'ACTIVE' ORDER BY w.startDateTime DESC")
     List<WatchAssignment> findActiveWatchesByProgramId(@Param("programId") Long programId);
 
@@ -31,6 +34,7 @@ public interface WatchAssignmentRepository extends JpaRepository<WatchAssignment
     Optional<WatchAssignment> findActiveWatchByResidentId(@Param("residentId") Long residentId);
 
     // Find all watches for a specific resident
+    @EntityGraph(attributePaths = {"resident", "program", "authorizedByClinician", "endedByStaff"})
     @Query("SELECT w FROM WatchAssignment w WHERE w.resident.id = :residentId ORDER BY w.startDateTime DESC")
     List<WatchAssignment> findByResidentIdOrderByStartDateDesc(@Param("residentId") Long residentId);
 
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface WatchLogEntryRepository extends JpaRepository<WatchLogEntry, Long> {
@@ -26,6 +27,10 @@ public interface WatchLogEntryRepository extends JpaRepository<WatchLogEntry, Lo
     @Query("SELECT COUNT(e) FROM WatchLogEntry e WHERE e.watchAssignment.id = :watchAssignmentId")
     long countByWatchAssignmentId(@Param("watchAssignmentId") Long watchAssignmentId);
 
+    // Count entries for many watch assignments at once: [watchAssignmentId, count]
+    @Query("SELECT e.watchAssignment.id, COUNT(e) FROM WatchLogEntry e WHERE e.watchAssignment.id IN :watchAssignmentIds GROUP BY e.watchAssignment.id")
+    List<Object[]> countByWatchAssignmentIds(@Param("watchAssignmentIds") Collection<Long> watchAssignmentIds);
+
     // Find entries within a time range
     @Query("SELECT e FROM WatchLogEntry e WHERE e.watchAssignment.id = :watchAssignmentId AND e.observationTime BETWEEN :startTime AND :endTime ORDER BY e.observationTime DESC")
     List<WatchLogEntry> findByWatchAssignmentIdAndTimeRange(
@@ -0,0 +1,68 @@
+package app.ysp.repository;
+
+import app.ysp.entity.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    /**
+     * Lock the oldest queued job. RUNNING jobs whose lease expired (crashed node) are picked up again
+     * while they have attempts left. SKIP LOCKED lets several backend nodes run exports concurrently.
+     */
+    @Query(value = "SELECT * FROM export_jobs WHERE status = 'QUEUED' " +
+                   "OR (status = 'RUNNING' AND lease_expires_at < :now AND attempts < :maxAttempts) " +
+                   "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ExportJob> lockNext(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fail RUNNING jobs whose lease expired on their last attempt; their node died every time
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE export_jobs SET status = 'FAILED', last_error = 'Abandoned by its worker', " +
+                   "completed_at = :now, lease_expires_at = NULL " +
+                   "WHERE status = 'RUNNING' AND lease_expires_at < :now AND attempts >= :maxAttempts", nativeQuery = true)
+    int failAbandoned(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts);
+
+    // The statements below only apply while the caller still holds the claim, identified by the
+    // attempt number it claimed the job with; 0 means another worker has taken the job over.
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE export_jobs SET lease_expires_at = :until " +
+                   "WHERE id = :id AND status = 'RUNNING' AND attempts = :attempt", nativeQuery = true)
+    int renewLease(@Param("id") Long id, @Param("attempt") int attempt, @Param("until") Instant until);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE export_jobs SET status = 'DONE', row_count = :rowCount, file_url = :fileUrl, file_size = :fileSize, " +
+                   "last_error = NULL, completed_at = :now, lease_expires_at = NULL " +
+                   "WHERE id = :id AND status = 'RUNNING' AND attempts = :attempt", nativeQuery = true)
+    int complete(@Param("id") Long id, @Param("attempt") int attempt, @Param("rowCount") long rowCount,
+                 @Param("fileUrl") String fileUrl, @Param("fileSize") long fileSize, @Param("now") Instant now);
+
+    /**
+     * Record a failed attempt: back to QUEUED for a retry, or FAILED with completedAt set
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE export_jobs SET status = :status, last_error = :error, lease_expires_at = NULL, " +
+                   "completed_at = CASE WHEN :status = 'FAILED' THEN CAST(:now AS timestamptz) END " +
+                   "WHERE id = :id AND status = 'RUNNING' AND attempts = :attempt", nativeQuery = true)
+    int fail(@Param("id") Long id, @Param("attempt") int attempt, @Param("status") String status,
+             @Param("error") String error, @Param("now") Instant now);
+
+    List<ExportJob> findTop50ByRequestedByOrderByCreatedAtDesc(String requestedBy);
+
+    List<ExportJob> findByStatusInAndCompletedAtBefore(List<String> statuses, Instant before);
+}
@@ -13,6 +13,30 @@ import java.util.Optional;
 
 @Repository
 public interface InventoryItemRepository extends JpaRepository<InventoryItem, Long> {
+
+    // Stock statements used by StockLedger: single conditional UPDATEs, status follows StockLedger.stockStatus
+
+    // Take :quantity units if at least that many are on hand; new quantity, or null when short
+    @Query(value = "WITH updated AS (UPDATE inventory_items SET current_quantity = current_quantity - :quantity, " +
+                   "status = CASE WHEN current_quantity - :quantity = 0 THEN 'OUT_OF_STOCK' " +
+                   "WHEN current_quantity - :quantity <= minimum_quantity * 0.5 THEN 'CRITICAL' " +
+                   "WHEN current_quantity - :quantity < minimum_quantity THEN 'LOW' ELSE 'GOOD' END, updated_at = NOW() " +
+                   "WHERE id = :id AND program_id = :programId AND current_quantity >= :quantity RETURNING current_quantity) " +
+                   "SELECT current_quantity FROM updated", nativeQuery = true)
+    Integer withdrawStock(@Param("id") Long id, @Param("programId") Long programId, @Param("quantity") int quantity);
+
+    // Set the quantity only if it is still :expected; new quantity, or null when it changed meanwhile
+    @Query(value = "WITH updated AS (UPDATE inventory_items SET current_quantity = :quantity, " +
+                   "status = CASE WHEN :quantity = 0 THEN 'OUT_OF_STOCK' " +
+                   "WHEN :quantity <= minimum_quantity * 0.5 THEN 'CRITICAL' " +
+                   "WHEN :quantity < minimum_quantity THEN 'LOW' ELSE 'GOOD' END, updated_at = NOW() " +
+                   "WHERE id = :id AND program_id = :programId AND current_quantity = :expected RETURNING current_quantity) " +
+                   "SELECT current_quantity FROM updated", nativeQuery = true)
+    Integer compareAndSetStock(@Param("id") Long id, @Param("programId") Long programId,
+                               @Param("expected") int expected, @Param("quantity") int quantity);
+
+    @Query(value = "SELECT current_quantity FROM inventory_items WHERE id = :id", nativeQuery = true)
+    Integer findCurrentQuantity(@Param("id") Long id);
     
     List<InventoryItem> findByProgramId(Long programId);
     
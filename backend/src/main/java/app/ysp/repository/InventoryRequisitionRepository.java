@@ -42,7 +42,8 @@ public interface InventoryRequisitionRepository extends JpaRepository<InventoryR
     @Query("SELECT COUNT(r) FROM InventoryRequisition r WHERE r.program.id = :programId AND r.status = :status")
     Long countByProgramIdAndStatus(@Param("programId") Long programId, @Param("status") String status);
     
-    @Query("SELECT COALESCE(MAX(CAST(SUBSTRING(r.requisitionNumber, 10, 3) AS INTEGER)), 0) FROM InventoryRequisition r " +
-           "WHERE r.requisitionNumber LIKE :pattern")
-    Integer findMaxRequisitionNumberForYear(@Param("pattern") String pattern);
+    // Highest sequence among REQ-<year>-<seq>[-<line>] numbers; seeds NumberAllocator's counter for a new year
+    @Query(value = "SELECT COALESCE(MAX(CAST(split_part(requisition_number, '-', 3) AS BIGINT)), 0) FROM inventory_requisitions " +
+                   "WHERE requisition_number ~ ('^REQ-' || :year || '-[0-9]+(-|$)')", nativeQuery = true)
+    long findMaxRequisitionSequenceForYear(@Param("year") String year);
 }
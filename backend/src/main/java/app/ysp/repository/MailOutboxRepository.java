@@ -0,0 +1,29 @@
+package app.ysp.repository;
+
+import app.ysp.entity.MailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxMessage, Long> {
+
+    /**
+     * Lock the next batch of due messages. SENDING rows whose lease expired (crashed node) are picked up again.
+     * SKIP LOCKED lets several backend nodes drain the outbox concurrently.
+     */
+    @Query(value = "SELECT * FROM mail_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailOutboxMessage> lockDueBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    long countByStatusIn(List<String> statuses);
+
+    @Modifying
+    @Query("DELETE FROM MailOutboxMessage m WHERE m.status = 'SENT' AND m.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+}
@@ -4,6 +4,7 @@ import app.ysp.entity.MedicationAudit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -73,6 +74,12 @@ public interface MedicationAuditRepository extends JpaRepository<MedicationAudit
         Pageable pageable
     );
     
+    // Move a PENDING audit to its review outcome; 0 when it was already reviewed (or does not exist)
+    @Modifying
+    @Query(value = "UPDATE medication_audits SET status = :status, updated_at = now() " +
+                   "WHERE id = :id AND status = 'PENDING'", nativeQuery = true)
+    int claimForReview(@Param("id") Long id, @Param("status") String status);
+    
     // Count pending approvals
     long countByProgram_IdAndStatus(Long programId, String status);
     
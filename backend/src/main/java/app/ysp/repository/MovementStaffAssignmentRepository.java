@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +14,10 @@ public interface MovementStaffAssignmentRepository extends JpaRepository<Movemen
     
     // Find all assignments for a movement
     List<MovementStaffAssignment> findByMovement_Id(Long movementId);
+
+    // Find assignments of many movements at once, with their staff (list views)
+    @Query("SELECT sa FROM MovementStaffAssignment sa JOIN FETCH sa.staff WHERE sa.movement.id IN :movementIds")
+    List<MovementStaffAssignment> findByMovementIdsWithStaff(@Param("movementIds") Collection<Long> movementIds);
     
     // Find all assignments for a staff member
     List<MovementStaffAssignment> findByStaff_Id(Long staffId);
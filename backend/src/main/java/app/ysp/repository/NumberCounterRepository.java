@@ -0,0 +1,38 @@
+package app.ysp.repository;
+
+import app.ysp.entity.NumberCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NumberCounterRepository extends JpaRepository<NumberCounter, Long> {
+
+    /**
+     * Reserve the next :block numbers; the new last value, or null when the counter does not exist yet
+     */
+    @Query(value = "WITH updated AS (UPDATE number_counter SET last_value = last_value + :block, updated_at = NOW() " +
+                   "WHERE scope = :scope AND scope_id = :scopeId AND period = :period RETURNING last_value) " +
+                   "SELECT last_value FROM updated", nativeQuery = true)
+    Long advance(@Param("scope") String scope, @Param("scopeId") long scopeId,
+                 @Param("period") int period, @Param("block") int block);
+
+    /**
+     * Last number reserved on a counter, null when it does not exist yet
+     */
+    @Query(value = "SELECT last_value FROM number_counter WHERE scope = :scope AND scope_id = :scopeId AND period = :period",
+           nativeQuery = true)
+    Long findLastValue(@Param("scope") String scope, @Param("scopeId") long scopeId, @Param("period") int period);
+
+    /**
+     * Create the counter at :seed and reserve the first :block numbers after it; if another node created
+     * it first, reserve the next block of that counter instead
+     */
+    @Query(value = "WITH updated AS (INSERT INTO number_counter (scope, scope_id, period, last_value) " +
+                   "VALUES (:scope, :scopeId, :period, :seed + :block) " +
+                   "ON CONFLICT (scope, scope_id, period) DO UPDATE SET last_value = number_counter.last_value + :block, updated_at = NOW() " +
+                   "RETURNING last_value) SELECT last_value FROM updated", nativeQuery = true)
+    Long createOrAdvance(@Param("scope") String scope, @Param("scopeId") long scopeId,
+                         @Param("period") int period, @Param("block") int block, @Param("seed") long seed);
+}
@@ -3,6 +3,7 @@ package app.ysp.repository;
 import app.ysp.entity.OffsiteMovement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,7 +18,8 @@ public interface OffsiteMovementRepository extends JpaRepository<OffsiteMovement
     // Find all movements for a program
     Page<OffsiteMovement> findByProgram_IdOrderByMovementDateDescMovementTimeDesc(Long programId, Pageable pageable);
     
-    // Find movements by status
+    // Find movements by status (list queries fetch the associations the response mapper reads)
+    @EntityGraph(attributePaths = {"resident", "scheduledByStaff", "completedByStaff", "cancelledByStaff"})
     List<OffsiteMovement> findByProgram_IdAndStatusOrderByMovementDateAscMovementTimeAsc(Long programId, String status);
     
     // Find movements for a specific resident
@@ -31,6 +33,7 @@ public interface OffsiteMovementRepository extends JpaRepository<OffsiteMovement
     );
     
     // Find urgent/emergency movements
+    @EntityGraph(attributePaths = {"resident", "scheduledByStaff", "completedByStaff", "cancelledByStaff"})
     List<OffsiteMovement> findByProgram_IdAndPriorityLevelInAndStatusOrderByMovementDateAscMovementTimeAsc(
         Long programId,
         List<String> priorityLevels,
@@ -38,6 +41,7 @@ public interface OffsiteMovementRepository extends JpaRepository<OffsiteMovement
     );
     
     // Find today's movements
+    @EntityGraph(attributePaths = {"resident", "scheduledByStaff", "completedByStaff", "cancelledByStaff"})
     @Query("SELECT m FROM OffsiteMovement m " +
            "WHERE m.program.id = :programId " +
            "AND m.movementDate = :date " +
@@ -46,6 +50,7 @@ public interface OffsiteMovementRepository extends JpaRepository<OffsiteMovement
     List<OffsiteMovement> findTodaysMovements(@Param("programId") Long programId, @Param("date") LocalDate date);
     
     // Complex filter for archive with pagination
+    @EntityGraph(attributePaths = {"resident", "scheduledByStaff", "completedByStaff", "cancelledByStaff"})
     @Query("SELECT m FROM OffsiteMovement m " +
            "WHERE m.program.id = :programId " +
            "AND (:residentId IS NULL OR m.resident.id = :residentId) " +
@@ -1,7 +1,9 @@
 package app.ysp.repository;
 
 import app.ysp.entity.PointsDiaryCard;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +18,18 @@ public interface PointsDiaryCardRepository extends JpaRepository<PointsDiaryCard
     // Find diary card for a resident and specific week
     Optional<PointsDiaryCard> findByResident_IdAndWeekStartDate(Long residentId, LocalDate weekStartDate);
     
+    // Lock a diary card row while its totals and balance are being changed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pdc FROM PointsDiaryCard pdc WHERE pdc.id = :id")
+    Optional<PointsDiaryCard> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pdc FROM PointsDiaryCard pdc WHERE pdc.resident.id = :residentId AND pdc.weekStartDate = :weekStartDate")
+    Optional<PointsDiaryCard> findByResidentAndWeekForUpdate(@Param("residentId") Long residentId, @Param("weekStartDate") LocalDate weekStartDate);
+
+    // Most recent card before a week, served by the (resident_id, week_start_date) unique index
+    Optional<PointsDiaryCard> findFirstByResident_IdAndWeekStartDateBeforeOrderByWeekStartDateDesc(Long residentId, LocalDate weekStartDate);
+
     // Find all diary cards for a resident
     List<PointsDiaryCard> findByResident_IdOrderByWeekStartDateDesc(Long residentId);
     
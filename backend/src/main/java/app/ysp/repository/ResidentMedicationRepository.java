@@ -6,10 +6,27 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ResidentMedicationRepository extends JpaRepository<ResidentMedication, Long> {
+
+    // Medications with the staff who added them, for bulk audit submission
+    @Query("SELECT m FROM ResidentMedication m LEFT JOIN FETCH m.addedByStaff WHERE m.id IN :ids")
+    List<ResidentMedication> findWithAddedByStaffByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stock statements used by StockLedger
+
+    // Add :delta (may be negative) to the count in one statement; new count, or null when the row is gone
+    @Query(value = "WITH updated AS (UPDATE resident_medications SET current_count = current_count + :delta, updated_at = NOW() " +
+                   "WHERE id = :id RETURNING current_count) SELECT current_count FROM updated", nativeQuery = true)
+    Integer adjustCount(@Param("id") Long id, @Param("delta") int delta);
+
+    // Take :quantity doses, never going below zero; new count, or null when the row is gone
+    @Query(value = "WITH updated AS (UPDATE resident_medications SET current_count = GREATEST(current_count - :quantity, 0), updated_at = NOW() " +
+                   "WHERE id = :id RETURNING current_count) SELECT current_count FROM updated", nativeQuery = true)
+    Integer takeCount(@Param("id") Long id, @Param("quantity") int quantity);
     
     // Find all medications for a resident
     List<ResidentMedication> findByResident_IdOrderByCreatedAtDesc(Long residentId);
@@ -4,6 +4,7 @@ import app.ysp.entity.ShiftLogAttachment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +12,9 @@ public interface ShiftLogAttachmentRepository extends JpaRepository<ShiftLogAtta
     
     // Find all attachments for a shift log
     List<ShiftLogAttachment> findByShiftLog_Id(Long shiftLogId);
+
+    // Find attachments for many shift logs at once (list views)
+    List<ShiftLogAttachment> findByShiftLog_IdIn(Collection<Long> shiftLogIds);
     
     // Delete all attachments for a shift log
     void deleteByShiftLog_Id(Long shiftLogId);
@@ -47,6 +47,15 @@ public interface ShiftLogRepository extends JpaRepository<ShiftLog, Long> {
         @Param("search") String search
     );
     
+    // Find logs whose staff assignments contain the given JSON array, e.g. [{"name":"Jane Doe"}]
+    @Query(value = "SELECT * FROM shift_logs WHERE program_id = :programId " +
+                   "AND staff_assignments_json @> CAST(:assignment AS jsonb) " +
+                   "ORDER BY shift_date DESC, created_at DESC", nativeQuery = true)
+    List<ShiftLog> findByProgramAndStaffAssignment(
+        @Param("programId") Long programId,
+        @Param("assignment") String assignment
+    );
+    
     // Count logs for a program
     long countByProgram_Id(Long programId);
 }
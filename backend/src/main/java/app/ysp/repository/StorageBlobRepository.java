@@ -0,0 +1,36 @@
+package app.ysp.repository;
+
+import app.ysp.entity.StorageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StorageBlobRepository extends JpaRepository<StorageBlob, String> {
+
+    /**
+     * Record a blob, or add a reference to a known one. Either way the row stays locked until commit.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO storage_blob (storage_key, sha256, size_bytes, content_type, ref_count) " +
+                   "VALUES (:key, :sha256, :size, :contentType, 1) " +
+                   "ON CONFLICT (storage_key) DO UPDATE SET ref_count = storage_blob.ref_count + 1", nativeQuery = true)
+    int insertOrAddReference(@Param("key") String key, @Param("sha256") String sha256,
+                             @Param("size") long size, @Param("contentType") String contentType);
+
+    /**
+     * Drop one reference, locking the row until commit; 0 when the blob is unknown
+     */
+    @Modifying
+    @Query(value = "UPDATE storage_blob SET ref_count = ref_count - 1 WHERE storage_key = :key AND ref_count > 0", nativeQuery = true)
+    int releaseReference(@Param("key") String key);
+
+    @Query(value = "SELECT ref_count FROM storage_blob WHERE storage_key = :key", nativeQuery = true)
+    Integer findRefCount(@Param("key") String key);
+
+    @Modifying
+    @Query(value = "DELETE FROM storage_blob WHERE storage_key = :key AND ref_count = 0", nativeQuery = true)
+    int deleteUnreferenced(@Param("key") String key);
+}
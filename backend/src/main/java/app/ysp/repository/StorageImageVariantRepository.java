@@ -0,0 +1,22 @@
+package app.ysp.repository;
+
+import app.ysp.entity.StorageImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StorageImageVariantRepository extends JpaRepository<StorageImageVariant, Long> {
+
+    List<StorageImageVariant> findByOriginalKeyOrderByWidthAsc(String originalKey);
+
+    boolean existsByOriginalKey(String originalKey);
+
+    @Modifying
+    @Query("DELETE FROM StorageImageVariant v WHERE v.originalKey = :originalKey")
+    int deleteByOriginalKey(@Param("originalKey") String originalKey);
+}
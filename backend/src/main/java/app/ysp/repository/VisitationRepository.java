@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -44,8 +45,9 @@ public interface VisitationRepository extends JpaRepository<Visitation, Long> {
            "AND v.scheduledDate >= :startDate " +
            "AND v.approvalStatus IN ('APPROVED', 'PENDING') " +
            "AND v.status IN ('SCHEDULED') " +
+           "AND v.scheduledEndTime > :now " +
            "ORDER BY v.scheduledDate ASC, v.scheduledStartTime ASC")
-    List<Visitation> findUpcomingVisitations(@Param("programId") Long programId, @Param("startDate") LocalDate startDate);
+    List<Visitation> findUpcomingVisitations(@Param("programId") Long programId, @Param("startDate") LocalDate startDate, @Param("now") Instant now);
     
     // Find visitations by date range
     List<Visitation> findByProgram_IdAndScheduledDateBetweenOrderByScheduledDateDesc(
@@ -113,4 +115,15 @@ public interface VisitationRepository extends JpaRepository<Visitation, Long> {
            "AND v.scheduledDate = :date " +
            "AND v.approvalStatus = 'APPROVED'")
     long countTodaysVisitations(@Param("programId") Long programId, @Param("date") LocalDate date);
+
+    // Mark up to :limit SCHEDULED visits whose end time has passed as COMPLETED; returns [program_id, count] per program
+    @Query(value = "WITH completed AS (" +
+           "UPDATE visitations SET status = 'COMPLETED', " +
+           "actual_start_time = COALESCE(actual_start_time, scheduled_start_time), " +
+           "actual_end_time = scheduled_end_time, updated_at = NOW() " +
+           "WHERE id IN (SELECT id FROM visitations WHERE status = 'SCHEDULED' AND scheduled_end_time < :now " +
+           "ORDER BY scheduled_end_time LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+           "RETURNING program_id) " +
+           "SELECT program_id, COUNT(*) FROM completed GROUP BY program_id", nativeQuery = true)
+    List<Object[]> completeExpired(@Param("now") Instant now, @Param("limit") int limit);
 }
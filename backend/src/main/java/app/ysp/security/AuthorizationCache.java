@@ -0,0 +1,220 @@
+package app.ysp.security;
+
+import app.ysp.repo.ProgramAssignmentRepository;
+import app.ysp.repo.RolePermissionRepository;
+import app.ysp.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the lookups behind @securityService checks so program-scoped requests do not hit
+ * staff_registry, users, roles and role_permissions on every call.
+ *
+ * Entries expire after app.security.authz-cache.ttl-seconds and are invalidated explicitly when
+ * assignments, users or role permissions change on this node. Hit/miss statistics are published
+ * as cache.* metrics tagged cache=authz.membership / authz.user-role / authz.module-access.
+ *
+ * The same invalidations record when a program, user or the role table last changed so that
+ * permission snapshots embedded in tokens (see TokenPermissions) resolved before the change are
+ * no longer trusted and the caller falls back to these caches until the client refreshes.
+ * Those markers only exist in this process, so a change made on another node (or before a
+ * restart) is not seen; a snapshot is therefore trusted for at most the cache TTL, the same
+ * staleness the cached lookups themselves allow.
+ */
+@Component
+public class AuthorizationCache {
+    private final ProgramAssignmentRepository assignments;
+    private final UserRepository users;
+    private final RolePermissionRepository perms;
+
+    private final Cache<MembershipKey, Membership> memberships;
+    private final Cache<String, Optional<String>> userRoles;
+    private final Cache<ModuleKey, Boolean> moduleAccess;
+
+    private final Map<Long, Long> programChangedAt = new ConcurrentHashMap<>();
+    private final Map<String, Long> userChangedAt = new ConcurrentHashMap<>();
+    private volatile long rolesChangedAt;
+    private final long snapshotTtlMillis;
+
+    public AuthorizationCache(ProgramAssignmentRepository assignments,
+                              UserRepository users,
+                              RolePermissionRepository perms,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.security.authz-cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${app.security.authz-cache.max-size:10000}") long maxSize) {
+        this.assignments = assignments;
+        this.users = users;
+        this.perms = perms;
+        this.snapshotTtlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.memberships = build(ttlSeconds, maxSize);
+        this.userRoles = build(ttlSeconds, maxSize);
+        this.moduleAccess = build(ttlSeconds, maxSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, memberships, "authz.membership");
+        CaffeineCacheMetrics.monitor(meterRegistry, userRoles, "authz.user-role");
+        CaffeineCacheMetrics.monitor(meterRegistry, moduleAccess, "authz.module-access");
+    }
+
+    private static <K, V> Cache<K, V> build(long ttlSeconds, long maxSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Membership of a user in a program, keyed by (email, programId)
+     */
+    public Membership membership(String email, Long programId) {
+        return memberships.get(new MembershipKey(normalize(email), programId), key -> {
+            List<String> roleTypes = assignments.findRoleTypesByProgramAndEmail(key.programId(), key.email());
+            boolean manager = roleTypes.stream().anyMatch(AuthorizationCache::isManagerRole);
+            return new Membership(!roleTypes.isEmpty(), manager);
+        });
+    }
+
+    /**
+     * Application role name of a user ("user" when unset), empty when the user does not exist
+     */
+    public Optional<String> userRole(String email) {
+        return userRoles.get(normalize(email), key -> users.findByEmailIgnoreCase(key)
+                .map(u -> u.getRole() != null ? u.getRole() : "user"));
+    }
+
+    /**
+     * Whether a role grants any access (FULL, EDIT or VIEW) to a module, keyed by (role, moduleKey)
+     */
+    public boolean moduleAccess(String roleName, String moduleKey) {
+        return moduleAccess.get(new ModuleKey(roleName, moduleKey.toLowerCase(Locale.ROOT)), key -> {
+            List<String> access = perms.findAccessByRoleNameAndModule(key.roleName(), key.moduleKey());
+            String a = access.isEmpty() ? null : access.get(0);
+            return a != null && ("FULL".equalsIgnoreCase(a) || "EDIT".equalsIgnoreCase(a) || "VIEW".equalsIgnoreCase(a));
+        });
+    }
+
+    /**
+     * Resolve the full permission snapshot of a user for embedding in a token
+     */
+    public TokenPermissions resolve(String email, String roleName) {
+        long resolvedAt = System.currentTimeMillis();
+        Map<Long, String> programs = new HashMap<>();
+        for (Object[] row : assignments.findProgramRolesByEmail(normalize(email))) {
+            Long programId = (Long) row[0];
+            String roleType = row[1] != null ? (String) row[1] : "";
+            // A manager assignment wins over a plain one in the same program
+            programs.merge(programId, roleType, (a, b) -> isManagerRole(a) ? a : b);
+        }
+        Map<String, String> modules = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        String role = roleName != null ? roleName : "user";
+        for (Object[] row : perms.findModuleAccessByRoleName(role)) {
+            if (row[0] == null) continue;
+            String module = ((String) row[0]).toLowerCase(Locale.ROOT);
+            // Same precedence as moduleAccess(): the first row per module decides
+            if (!seen.add(module)) continue;
+            String a = row[1] != null ? ((String) row[1]).toUpperCase(Locale.ROOT) : "";
+            switch (a) {
+                case "FULL" -> modules.put(module, "F");
+                case "EDIT" -> modules.put(module, "E");
+                case "VIEW" -> modules.put(module, "V");
+                default -> { }
+            }
+        }
+        return new TokenPermissions(Map.copyOf(programs), Map.copyOf(modules), resolvedAt);
+    }
+
+    /**
+     * Whether a token snapshot still reflects the user's assignment in a program
+     */
+    public boolean isCurrentForProgram(TokenPermissions p, String email, Long programId) {
+        return isFresh(p)
+                && p.resolvedAt() > userChangedAt.getOrDefault(normalize(email), 0L)
+                && p.resolvedAt() > programChangedAt.getOrDefault(programId, 0L);
+    }
+
+    /**
+     * Whether a token snapshot still reflects the user's role and its module permissions
+     */
+    public boolean isCurrentForModules(TokenPermissions p, String email) {
+        return isFresh(p)
+                && p.resolvedAt() > userChangedAt.getOrDefault(normalize(email), 0L)
+                && p.resolvedAt() > rolesChangedAt;
+    }
+
+    /**
+     * Whether anything the snapshot knows about changed since it was resolved
+     */
+    public boolean isStale(TokenPermissions p, String email) {
+        if (!isCurrentForModules(p, email)) return true;
+        for (Long programId : p.programs().keySet()) {
+            if (p.resolvedAt() <= programChangedAt.getOrDefault(programId, 0L)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the snapshot is younger than the cache TTL; older ones may miss changes made elsewhere
+     */
+    private boolean isFresh(TokenPermissions p) {
+        return System.currentTimeMillis() - p.resolvedAt() < snapshotTtlMillis;
+    }
+
+    /**
+     * Drop cached memberships of a program after its assignments change
+     */
+    public void invalidateProgram(Long programId) {
+        if (programId != null) programChangedAt.put(programId, System.currentTimeMillis());
+        memberships.asMap().keySet().removeIf(k -> Objects.equals(k.programId(), programId));
+    }
+
+    /**
+     * Drop everything cached for one user after their role or account changes
+     */
+    public void invalidateUser(String email) {
+        String key = normalize(email);
+        userChangedAt.put(key, System.currentTimeMillis());
+        userRoles.invalidate(key);
+        memberships.asMap().keySet().removeIf(k -> k.email().equals(key));
+    }
+
+    /**
+     * Drop cached module access after roles or role permissions change
+     */
+    public void invalidateRoles() {
+        rolesChangedAt = System.currentTimeMillis();
+        moduleAccess.invalidateAll();
+        // A renamed role changes which users resolve to it
+        userRoles.invalidateAll();
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static boolean isManagerRole(String roleType) {
+        if (roleType == null) return false;
+        String r = roleType.toUpperCase();
+        return r.equals("PROGRAM_DIRECTOR") || r.equals("ASSISTANT_DIRECTOR") || r.equals("REGIONAL_ADMIN");
+    }
+
+    public record Membership(boolean member, boolean manager) {}
+
+    private record MembershipKey(String email, Long programId) {}
+
+    private record ModuleKey(String roleName, String moduleKey) {}
+}
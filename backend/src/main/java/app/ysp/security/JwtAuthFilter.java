@@ -18,9 +18,15 @@ import java.util.Collections;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    public static final String REFRESH_HEADER = "X-Token-Refresh";
+
     private final JwtService jwtService;
+    private final AuthorizationCache authz;
 
-    public JwtAuthFilter(JwtService jwtService) { this.jwtService = jwtService; }
+    public JwtAuthFilter(JwtService jwtService, AuthorizationCache authz) {
+        this.jwtService = jwtService;
+        this.authz = authz;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -46,6 +52,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 if (subject != null) {
                     var auth = new UsernamePasswordAuthenticationToken(subject, null,
                             role != null ? Collections.singleton(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())) : Collections.emptyList());
+                    TokenPermissions permissions = TokenPermissions.fromClaims(claims);
+                    auth.setDetails(permissions);
+                    // Ask the client to call /auth/refresh once its embedded permissions are outdated
+                    if (permissions == null || authz.isStale(permissions, subject)) {
+                        response.setHeader(REFRESH_HEADER, "true");
+                    }
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             } catch (Exception ignored) { }
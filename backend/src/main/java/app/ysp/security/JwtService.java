@@ -1,5 +1,6 @@
 package app.ysp.security;
 
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -23,7 +24,10 @@ public class JwtService {
 
     private Key key;
 
-    public Key getSigningKey() {
+    // Parsers are immutable and thread-safe once built, so one instance serves every request
+    private volatile JwtParser parser;
+
+    public synchronized Key getSigningKey() {
         if (key == null) {
             if (jwtSecret == null || jwtSecret.isBlank()) {
                 // generate a random key if not provided (dev default)
@@ -36,22 +40,31 @@ public class JwtService {
     }
 
     public String generateToken(String subject, Map<String, Object> claims) {
-        Instant now = Instant.now();
+        return generateToken(subject, claims, Date.from(Instant.now().plusSeconds(ttlSeconds)));
+    }
+
+    /**
+     * Issue a token with a fixed expiry, used when re-issuing within an existing session
+     */
+    public String generateToken(String subject, Map<String, Object> claims, Date expiration) {
         return Jwts.builder()
                 .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .addClaims(claims)
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(now.plusSeconds(ttlSeconds)))
+                .setIssuedAt(new Date())
+                .setExpiration(expiration)
                 .signWith(getSigningKey())
                 .compact();
     }
 
     public io.jsonwebtoken.Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        JwtParser p = parser;
+        if (p == null) {
+            p = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build();
+            parser = p;
+        }
+        return p.parseClaimsJws(token).getBody();
     }
 }
@@ -0,0 +1,61 @@
+package app.ysp.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Permission snapshot signed into an access token.
+ *
+ * Claims: "prg" maps program id to the user's role type in that program, "mod" maps module key
+ * to its access letter (F = FULL, E = EDIT, V = VIEW; NONE is omitted) and "pat" is the epoch
+ * millisecond the snapshot was resolved, compared against AuthorizationCache change markers and
+ * its TTL.
+ */
+public record TokenPermissions(Map<Long, String> programs, Map<String, String> modules, long resolvedAt) {
+
+    static final String PROGRAMS_CLAIM = "prg";
+    static final String MODULES_CLAIM = "mod";
+    static final String RESOLVED_AT_CLAIM = "pat";
+
+    public boolean member(Long programId) {
+        return programs.containsKey(programId);
+    }
+
+    public boolean manager(Long programId) {
+        return AuthorizationCache.isManagerRole(programs.get(programId));
+    }
+
+    public boolean moduleAccess(String moduleKey) {
+        return moduleKey != null && modules.containsKey(moduleKey.toLowerCase(Locale.ROOT));
+    }
+
+    public Map<String, Object> toClaims() {
+        Map<String, String> prg = new HashMap<>();
+        programs.forEach((id, roleType) -> prg.put(String.valueOf(id), roleType));
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(PROGRAMS_CLAIM, prg);
+        claims.put(MODULES_CLAIM, modules);
+        claims.put(RESOLVED_AT_CLAIM, resolvedAt);
+        return claims;
+    }
+
+    /**
+     * Snapshot carried by a parsed token, null for tokens issued before permissions were embedded
+     */
+    public static TokenPermissions fromClaims(Claims claims) {
+        Object prg = claims.get(PROGRAMS_CLAIM);
+        Object mod = claims.get(MODULES_CLAIM);
+        Object pat = claims.get(RESOLVED_AT_CLAIM);
+        if (!(prg instanceof Map<?, ?> prgMap) || !(mod instanceof Map<?, ?> modMap) || !(pat instanceof Number resolved)) {
+            return null;
+        }
+        Map<Long, String> programs = new HashMap<>();
+        prgMap.forEach((k, v) -> programs.put(Long.valueOf(String.valueOf(k)), v != null ? String.valueOf(v) : ""));
+        Map<String, String> modules = new HashMap<>();
+        modMap.forEach((k, v) -> modules.put(String.valueOf(k), String.valueOf(v)));
+        return new TokenPermissions(Map.copyOf(programs), Map.copyOf(modules), resolved.longValue());
+    }
+}
@@ -5,12 +5,16 @@ import app.ysp.domain.User;
 import app.ysp.dto.LoginRequest;
 import app.ysp.repo.MfaCodeRepository;
 import app.ysp.repo.UserRepository;
+import app.ysp.security.AuthorizationCache;
 import app.ysp.security.JwtService;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
@@ -21,13 +25,15 @@ public class AuthService {
     private final PasswordEncoder encoder;
     private final JwtService jwtService;
     private final MailService mailService;
+    private final AuthorizationCache authorizationCache;
 
-    public AuthService(UserRepository userRepository, MfaCodeRepository mfaCodeRepository, PasswordEncoder encoder, JwtService jwtService, MailService mailService) {
+    public AuthService(UserRepository userRepository, MfaCodeRepository mfaCodeRepository, PasswordEncoder encoder, JwtService jwtService, MailService mailService, AuthorizationCache authorizationCache) {
         this.userRepository = userRepository;
         this.mfaCodeRepository = mfaCodeRepository;
         this.encoder = encoder;
         this.jwtService = jwtService;
         this.mailService = mailService;
+        this.authorizationCache = authorizationCache;
     }
 
     public boolean handleLogin(LoginRequest request) {
@@ -58,9 +64,38 @@ public class AuthService {
         MfaCode mfa = mfaOpt.get();
         mfa.setUsed(true);
         mfaCodeRepository.save(mfa);
+        return issueToken(user);
+    }
+
+    /**
+     * Re-issue the caller's token with freshly resolved permissions. The new token keeps the
+     * current one's expiry: refreshes happen every few minutes and must not extend the session.
+     */
+    public String refreshToken(String email, String currentToken) {
+        Date expiration;
+        try {
+            Claims current = jwtService.parseClaims(currentToken);
+            if (!email.equals(current.getSubject())) return null;
+            expiration = current.getExpiration();
+        } catch (Exception e) {
+            return null;
+        }
+        Optional<User> userOpt = userRepository.findByEmail(email);
+        if (userOpt.isEmpty()) return null;
+        User user = userOpt.get();
+        if (!Boolean.TRUE.equals(user.getEnabled())) return null;
+        return jwtService.generateToken(user.getEmail(), tokenClaims(user), expiration);
+    }
+
+    private String issueToken(User user) {
+        return jwtService.generateToken(user.getEmail(), tokenClaims(user));
+    }
+
+    private Map<String, Object> tokenClaims(User user) {
         var claims = new HashMap<String, Object>();
         claims.put("role", user.getRole());
-        return jwtService.generateToken(user.getEmail(), claims);
+        claims.putAll(authorizationCache.resolve(user.getEmail(), user.getRole()).toClaims());
+        return claims;
     }
 
     public boolean resendMfa(String email) {
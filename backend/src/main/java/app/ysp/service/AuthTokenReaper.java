@@ -0,0 +1,81 @@
+package app.ysp.service;
+
+import app.ysp.repo.MfaCodeRepository;
+import app.ysp.repo.OneTimeLoginRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.IntSupplier;
+
+/**
+ * Purges spent one-time login links and MFA codes.
+ *
+ * Rows are deleted in batches of app.auth.reaper.batch-size, each in its own transaction,
+ * so a large backlog never holds long locks on the tables login and password reset use.
+ */
+@Service
+public class AuthTokenReaper {
+    private final OneTimeLoginRepository otlRepo;
+    private final MfaCodeRepository mfaCodeRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter otlRemoved;
+    private final Counter mfaRemoved;
+
+    @Value("${app.auth.reaper.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.auth.reaper.grace-minutes:60}")
+    private long graceMinutes;
+
+    public AuthTokenReaper(OneTimeLoginRepository otlRepo,
+                           MfaCodeRepository mfaCodeRepo,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.otlRepo = otlRepo;
+        this.mfaCodeRepo = mfaCodeRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.otlRemoved = Counter.builder("ysp.auth.reaper.removed")
+                .tag("table", "one_time_logins")
+                .description("Spent auth token rows deleted by the reaper")
+                .register(meterRegistry);
+        this.mfaRemoved = Counter.builder("ysp.auth.reaper.removed")
+                .tag("table", "mfa_codes")
+                .description("Spent auth token rows deleted by the reaper")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delete links and codes that expired (or links used) more than the grace period ago
+     */
+    @Scheduled(fixedDelayString = "${app.auth.reaper.interval-ms:3600000}", initialDelayString = "${app.auth.reaper.initial-delay-ms:60000}")
+    public void reap() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes));
+        try {
+            long otl = drain(() -> otlRepo.deleteSpentBatch(cutoff, batchSize), otlRemoved);
+            long mfa = drain(() -> mfaCodeRepo.deleteSpentBatch(cutoff, batchSize), mfaRemoved);
+            if (otl + mfa > 0) {
+                System.out.println("[INFO] Purged " + otl + " one-time login links and " + mfa + " MFA codes");
+            }
+        } catch (Exception e) {
+            System.err.println("[WARN] Auth token reaper failed: " + e.getMessage());
+        }
+    }
+
+    private long drain(IntSupplier deleteBatch, Counter removed) {
+        long total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> deleteBatch.getAsInt());
+            int n = deleted != null ? deleted : 0;
+            removed.increment(n);
+            total += n;
+            if (n < batchSize) return total;
+        }
+    }
+}
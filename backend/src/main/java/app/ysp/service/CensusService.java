@@ -12,10 +12,10 @@ import app.ysp.repository.CensusRepository;
 import app.ysp.repository.CensusEntryRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -28,8 +28,8 @@ public class CensusService {
     private final UserRepository userRepository;
     private final ProgramResidentRepository residentRepository;
     private final ProgramAssignmentRepository assignmentRepository;
-    private final MailService mailService;
-    private final TemplateEngine templateEngine;
+    private final MailOutboxService mailOutbox;
+    private final NotificationRenderer notificationRenderer;
     private final SseHub sseHub;
 
     public CensusService(
@@ -39,8 +39,8 @@ public class CensusService {
             UserRepository userRepository,
             ProgramResidentRepository residentRepository,
             ProgramAssignmentRepository assignmentRepository,
-            MailService mailService,
-            TemplateEngine templateEngine,
+            MailOutboxService mailOutbox,
+            NotificationRenderer notificationRenderer,
             SseHub sseHub) {
         this.censusRepository = censusRepository;
         this.censusEntryRepository = censusEntryRepository;
@@ -48,8 +48,8 @@ public class CensusService {
         this.userRepository = userRepository;
         this.residentRepository = residentRepository;
         this.assignmentRepository = assignmentRepository;
-        this.mailService = mailService;
-        this.templateEngine = templateEngine;
+        this.mailOutbox = mailOutbox;
+        this.notificationRenderer = notificationRenderer;
         this.sseHub = sseHub;
     }
 
@@ -128,10 +128,19 @@ public class CensusService {
 
         Census savedCensus = censusRepository.save(census);
 
-        // Save entries
+        // Load all referenced residents with one query, then insert the entries as one JDBC batch
+        Map<Long, ProgramResident> residentsById = new HashMap<>();
+        for (ProgramResident r : residentRepository.findAllById(
+                request.getEntries().stream().map(CensusRequest.CensusEntryRequest::getResidentId).collect(Collectors.toSet()))) {
+            residentsById.put(r.getId(), r);
+        }
+
+        List<CensusEntry> entries = new ArrayList<>();
         for (CensusRequest.CensusEntryRequest entryReq : request.getEntries()) {
-            ProgramResident resident = residentRepository.findById(entryReq.getResidentId())
-                    .orElseThrow(() -> new RuntimeException("Resident not found: " + entryReq.getResidentId()));
+            ProgramResident resident = residentsById.get(entryReq.getResidentId());
+            if (resident == null) {
+                throw new RuntimeException("Resident not found: " + entryReq.getResidentId());
+            }
 
             CensusEntry entry = new CensusEntry();
             entry.setCensus(savedCensus);
@@ -139,9 +148,9 @@ public class CensusService {
             entry.setResidentName(entryReq.getResidentName());
             entry.setStatus(entryReq.getStatus());
             entry.setComments(entryReq.getComments());
-
-            censusEntryRepository.save(entry);
+            entries.add(entry);
         }
+        censusEntryRepository.saveAll(entries);
 
         // Send email if requested
         if (request.isSendEmail()) {
@@ -204,13 +213,11 @@ public class CensusService {
         context.setVariable("dysCount", dysCount);
         context.setVariable("nonDysCount", nonDysCount);
 
-        String html = templateEngine.process("census-notification", context);
+        String html = notificationRenderer.render("census-notification", context);
 
-        // Send to all PDS, ASPD, and Directors
-        for (String email : recipients) {
-            mailService.sendRawHtml(email, subject, html);
-            System.out.println("[INFO] Sent census notification email to: " + email);
-        }
+        // Queue for all PDS, ASPD, and Directors
+        int queued = mailOutbox.enqueue(recipients, subject, html);
+        System.out.println("[INFO] Queued census notification email for " + queued + " recipient(s)");
     }
 
     /**
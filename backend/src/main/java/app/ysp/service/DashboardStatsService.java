@@ -0,0 +1,172 @@
+package app.ysp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory per-program dashboard counters.
+ *
+ * Counters are grouped in sections (inventory, visitation, phoneLogs, watches, ucr, medication).
+ * A section is loaded from the database on first use and then served from memory. The domain
+ * events published through SseHub mark the affected section of that program stale, so it is
+ * recomputed once after the change instead of on every dashboard render by every user.
+ * A scheduled reconcile reloads cached sections to pick up changes made outside the
+ * application and to roll "today" counters over at midnight.
+ */
+@Service
+public class DashboardStatsService {
+    public static final String INVENTORY = "inventory";
+    public static final String VISITATION = "visitation";
+    public static final String PHONE_LOGS = "phoneLogs";
+    public static final String WATCHES = "watches";
+    public static final String UCR = "ucr";
+    public static final String MEDICATION = "medication";
+
+    private final Map<String, Function<Long, Map<String, Object>>> loaders = new LinkedHashMap<>();
+    private final Map<Long, ProgramCounters> programs = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter invalidations;
+
+    @Value("${app.dashboard.idle-evict-minutes:60}")
+    private long idleEvictMinutes;
+
+    public DashboardStatsService(InventoryService inventoryService,
+                                 VisitationService visitationService,
+                                 PhoneLogService phoneLogService,
+                                 WatchService watchService,
+                                 UcrIssueService ucrIssueService,
+                                 MedicationService medicationService,
+                                 SseHub sseHub,
+                                 MeterRegistry meterRegistry) {
+        loaders.put(INVENTORY, inventoryService::getInventoryCounts);
+        loaders.put(VISITATION, visitationService::getVisitationStatistics);
+        loaders.put(PHONE_LOGS, phoneLogService::getPhoneLogStatistics);
+        loaders.put(WATCHES, watchService::getWatchStatistics);
+        loaders.put(UCR, ucrIssueService::getStats);
+        loaders.put(MEDICATION, medicationService::getMedicationCounts);
+        this.loads = Counter.builder("ysp.dashboard.section.loads")
+                .description("Dashboard counter sections loaded from the database")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("ysp.dashboard.section.invalidations")
+                .description("Dashboard counter sections invalidated by domain events")
+                .register(meterRegistry);
+        sseHub.addListener(this::onEvent);
+    }
+
+    /**
+     * All dashboard counters of a program, keyed by section
+     */
+    public Map<String, Object> snapshot(Long programId) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String section : loaders.keySet()) {
+            out.put(section, section(programId, section));
+        }
+        out.put("generatedAt", Instant.now().toString());
+        return out;
+    }
+
+    /**
+     * Counters of one section, loaded from the database when missing, stale or from a previous day
+     */
+    public Map<String, Object> section(Long programId, String section) {
+        ProgramCounters counters = programs.computeIfAbsent(programId, k -> new ProgramCounters());
+        counters.lastAccess = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        Section cached = counters.sections.get(section);
+        if (cached != null && cached.day.equals(today)) return cached.values;
+        return load(programId, counters, section, today).values;
+    }
+
+    private Section load(Long programId, ProgramCounters counters, String section, LocalDate today) {
+        Function<Long, Map<String, Object>> loader = loaders.get(section);
+        if (loader == null) throw new IllegalArgumentException("Unknown dashboard section: " + section);
+        long version = counters.version(section);
+        Section loaded = new Section(Map.copyOf(loader.apply(programId)), today);
+        loads.increment();
+        // Only cache when no event arrived while loading, otherwise the next read reloads
+        if (counters.version(section) == version) {
+            counters.sections.put(section, loaded);
+        }
+        return loaded;
+    }
+
+    private void onEvent(String type, Long programId) {
+        if (type == null || programId == null) return;
+        String section = sectionFor(type);
+        if (section == null) return;
+        invalidate(programId, section);
+        // Events are published inside the writing transaction; drop anything read before it committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(programId, section);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long programId, String section) {
+        ProgramCounters counters = programs.get(programId);
+        if (counters == null) return;
+        counters.versions.merge(section, 1L, Long::sum);
+        if (counters.sections.remove(section) != null) invalidations.increment();
+    }
+
+    static String sectionFor(String type) {
+        if (type.startsWith("inventory.")) return INVENTORY;
+        if (type.startsWith("visitations.")) return VISITATION;
+        if (type.startsWith("phone_logs.")) return PHONE_LOGS;
+        if (type.startsWith("watches.")) return WATCHES;
+        if (type.startsWith("programs.ucr.")) return UCR;
+        if (type.startsWith("medication_") || type.startsWith("audit_") || type.startsWith("alert_") || type.equals("new_alert")) {
+            return MEDICATION;
+        }
+        return null;
+    }
+
+    /**
+     * Periodically reload cached sections from the database and forget idle programs
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-ms:300000}", initialDelayString = "${app.dashboard.reconcile-ms:300000}")
+    public void reconcile() {
+        long idleCutoff = System.currentTimeMillis() - idleEvictMinutes * 60_000L;
+        programs.entrySet().removeIf(e -> e.getValue().lastAccess < idleCutoff);
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<Long, ProgramCounters> e : programs.entrySet()) {
+            for (String section : List.copyOf(e.getValue().sections.keySet())) {
+                try {
+                    load(e.getKey(), e.getValue(), section, today);
+                } catch (Exception ex) {
+                    System.err.println("[WARN] Dashboard reconcile failed for program " + e.getKey() + " section " + section + ": " + ex.getMessage());
+                    e.getValue().sections.remove(section);
+                }
+            }
+        }
+    }
+
+    private record Section(Map<String, Object> values, LocalDate day) {}
+
+    private static final class ProgramCounters {
+        final Map<String, Section> sections = new ConcurrentHashMap<>();
+        final Map<String, Long> versions = new ConcurrentHashMap<>();
+        volatile long lastAccess = System.currentTimeMillis();
+
+        long version(String section) {
+            return versions.getOrDefault(section, 0L);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package app.ysp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed score matrix of one diary card: behaviors x 7 days of points plus repair markers.
+ *
+ * Parsed in a single streaming pass from the card's daily points JSON
+ * ({ "s1_rule": {"0": 2, "1": "R1", ...}, ... }) without building intermediate maps.
+ * Repair cells (R, R1, R2, R3) score 0 points.
+ */
+public final class DiaryCardScores {
+    public static final int DAYS = 7;
+    public static final byte NO_REPAIR = 0;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String[] behaviors;
+    private final int[][] points;
+    private final byte[][] repairs;
+
+    private DiaryCardScores(String[] behaviors, int[][] points, byte[][] repairs) {
+        this.behaviors = behaviors;
+        this.points = points;
+        this.repairs = repairs;
+    }
+
+    public static DiaryCardScores empty() {
+        return new DiaryCardScores(new String[0], new int[0][], new byte[0][]);
+    }
+
+    public static DiaryCardScores parse(String dailyPointsJson) {
+        if (dailyPointsJson == null || dailyPointsJson.isEmpty()) return empty();
+        List<String> behaviors = new ArrayList<>();
+        List<int[]> points = new ArrayList<>();
+        List<byte[]> repairs = new ArrayList<>();
+        try (JsonParser p = JSON.createParser(dailyPointsJson)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return empty();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String behavior = p.currentName();
+                if (p.nextToken() != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                int[] row = new int[DAYS];
+                byte[] repairRow = new byte[DAYS];
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    int day = dayIndex(p.currentName());
+                    JsonToken value = p.nextToken();
+                    if (day < 0) {
+                        p.skipChildren();
+                        continue;
+                    }
+                    if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+                        row[day] = p.getIntValue();
+                    } else if (value == JsonToken.VALUE_STRING) {
+                        String text = p.getText();
+                        byte repair = repairLevel(text);
+                        if (repair != NO_REPAIR) {
+                            repairRow[day] = repair;
+                        } else {
+                            row[day] = parseIntOrZero(text);
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                behaviors.add(behavior);
+                points.add(row);
+                repairs.add(repairRow);
+            }
+        } catch (IOException e) {
+            System.err.println("[WARN] Failed to parse diary card points: " + e.getMessage());
+            return empty();
+        }
+        return new DiaryCardScores(behaviors.toArray(new String[0]), points.toArray(new int[0][]), repairs.toArray(new byte[0][]));
+    }
+
+    /**
+     * Per-day redemptions from {"0": 10, "1": 5, ...}; null when there is no redemption JSON
+     */
+    public static int[] parseRedemptions(String dailyRedemptionsJson) {
+        if (dailyRedemptionsJson == null || dailyRedemptionsJson.isEmpty()) return null;
+        int[] days = new int[DAYS];
+        try (JsonParser p = JSON.createParser(dailyRedemptionsJson)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return days;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                int day = dayIndex(p.currentName());
+                JsonToken value = p.nextToken();
+                if (day < 0) {
+                    p.skipChildren();
+                } else if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+                    days[day] += p.getIntValue();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    days[day] += parseIntOrZero(p.getText());
+                } else {
+                    p.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[WARN] Failed to parse diary card redemptions: " + e.getMessage());
+        }
+        return days;
+    }
+
+    public int behaviorCount() {
+        return behaviors.length;
+    }
+
+    public String behavior(int index) {
+        return behaviors[index];
+    }
+
+    public int points(int behavior, int day) {
+        return points[behavior][day];
+    }
+
+    /**
+     * Repair level of a cell: 0 for none, 1 for R, 2..4 for R1..R3
+     */
+    public byte repair(int behavior, int day) {
+        return repairs[behavior][day];
+    }
+
+    /**
+     * Points earned on each day of the week, summed over behaviors
+     */
+    public int[] dayTotals() {
+        int[] totals = new int[DAYS];
+        for (int[] row : points) {
+            for (int d = 0; d < DAYS; d++) totals[d] += row[d];
+        }
+        return totals;
+    }
+
+    public static int sum(int[] days) {
+        if (days == null) return 0;
+        int total = 0;
+        for (int v : days) total += v;
+        return total;
+    }
+
+    private static int dayIndex(String key) {
+        if (key == null || key.length() != 1) return -1;
+        int day = key.charAt(0) - '0';
+        return day >= 0 && day < DAYS ? day : -1;
+    }
+
+    private static byte repairLevel(String text) {
+        switch (text) {
+            case "R": return 1;
+            case "R1": return 2;
+            case "R2": return 3;
+            case "R3": return 4;
+            default: return NO_REPAIR;
+        }
+    }
+
+    private static int parseIntOrZero(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
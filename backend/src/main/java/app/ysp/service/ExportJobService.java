@@ -0,0 +1,237 @@
+package app.ysp.service;
+
+import app.ysp.entity.ExportJob;
+import app.ysp.repository.ExportJobRepository;
+import app.ysp.util.TabularWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queued exports for sizes that should not hold an HTTP request open.
+ *
+ * A job row is written on request; a scheduled poller claims queued jobs and hands them to a
+ * small dedicated pool (the shared scheduler thread is never blocked by an export), which streams
+ * the export into a temp file, uploads it through StorageService and records the file URL.
+ * Claims carry a lease so a job whose node died is picked up again, up to max-attempts times.
+ * The poller renews the leases of jobs still running here, and a worker only records its result
+ * while it holds the claim (the attempt number it claimed the job with), so a job taken over by
+ * another node is never written twice.
+ */
+@Service
+public class ExportJobService {
+    private final ExportJobRepository jobs;
+    private final ExportService exportService;
+    private final StorageService storageService;
+    private final SseHub sseHub;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Timer jobTimer;
+    private final ExecutorService workers;
+    private final Semaphore slots;
+    // Jobs running on this node: id -> attempt number of our claim
+    private final Map<Long, Integer> running = new ConcurrentHashMap<>();
+
+    @Value("${app.exports.jobs.lease-seconds:3600}")
+    private long leaseSeconds;
+
+    @Value("${app.exports.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.exports.jobs.retention-days:7}")
+    private long retentionDays;
+
+    public ExportJobService(ExportJobRepository jobs,
+                            ExportService exportService,
+                            StorageService storageService,
+                            SseHub sseHub,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.exports.jobs.concurrency:2}") int concurrency) {
+        this.jobs = jobs;
+        this.exportService = exportService;
+        this.storageService = storageService;
+        this.sseHub = sseHub;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completedCounter = meterRegistry.counter("ysp.exports.jobs.completed");
+        this.failedCounter = meterRegistry.counter("ysp.exports.jobs.failed");
+        this.jobTimer = Timer.builder("ysp.exports.jobs.duration")
+                .description("Time to generate and upload a queued export")
+                .register(meterRegistry);
+        this.slots = new Semaphore(Math.max(1, concurrency));
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "export-job-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Running jobs are abandoned; their lease expires and another node retries them
+        workers.shutdownNow();
+    }
+
+    public ExportJob enqueue(String dataset, String format, ExportService.Scope scope, String requestedBy) {
+        ExportJob job = new ExportJob();
+        job.setDataset(dataset);
+        job.setFormat(format);
+        job.setProgramId(scope.programId());
+        job.setRegion(scope.region());
+        job.setFromDate(scope.from());
+        job.setToDate(scope.to());
+        job.setRequestedBy(requestedBy);
+        return jobs.save(job);
+    }
+
+    /**
+     * Claim queued jobs while a worker is free
+     */
+    @Scheduled(fixedDelayString = "${app.exports.jobs.poll-interval-ms:5000}")
+    public void runQueued() {
+        try {
+            renewLeases();
+            int abandoned = jobs.failAbandoned(Instant.now(), maxAttempts);
+            if (abandoned > 0) {
+                failedCounter.increment(abandoned);
+                System.err.println("[WARN] Failed " + abandoned + " export jobs abandoned on their last attempt");
+            }
+        } catch (Exception e) {
+            System.err.println("[WARN] Export job lease upkeep failed: " + e.getMessage());
+        }
+        while (slots.tryAcquire()) {
+            ExportJob job;
+            try {
+                job = claimNext();
+            } catch (Exception e) {
+                slots.release();
+                System.err.println("[WARN] Export job runner failed: " + e.getMessage());
+                return;
+            }
+            if (job == null) {
+                slots.release();
+                return;
+            }
+            running.put(job.getId(), job.getAttempts());
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    running.remove(job.getId());
+                    slots.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Remove finished jobs and their files past the retention window
+     */
+    @Scheduled(cron = "${app.exports.jobs.purge-cron:0 45 3 * * *}")
+    public void purgeExpired() {
+        Instant before = Instant.now().minus(Duration.ofDays(retentionDays));
+        List<ExportJob> expired = jobs.findByStatusInAndCompletedAtBefore(List.of("DONE", "FAILED"), before);
+        for (ExportJob job : expired) {
+            if (job.getFileUrl() != null) storageService.deleteFile(job.getFileUrl());
+            jobs.delete(job);
+        }
+        if (!expired.isEmpty()) {
+            System.out.println("[INFO] Purged " + expired.size() + " expired export jobs");
+        }
+    }
+
+    /**
+     * Push out the lease of every job still running here. The poll interval is far shorter than
+     * the lease, so a live worker never lets its lease expire.
+     */
+    private void renewLeases() {
+        for (Map.Entry<Long, Integer> claim : running.entrySet()) {
+            Instant until = Instant.now().plusSeconds(leaseSeconds);
+            if (jobs.renewLease(claim.getKey(), claim.getValue(), until) == 0) {
+                // Its result will be discarded when it finishes
+                System.err.println("[WARN] Export job " + claim.getKey() + " lost its claim while running");
+            }
+        }
+    }
+
+    private ExportJob claimNext() {
+        return transactionTemplate.execute(status -> jobs.lockNext(Instant.now(), maxAttempts).map(job -> {
+            Instant now = Instant.now();
+            job.setStatus("RUNNING");
+            job.setAttempts(job.getAttempts() + 1);
+            job.setStartedAt(now);
+            job.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+            return jobs.save(job);
+        }).orElse(null));
+    }
+
+    private void run(ExportJob job) {
+        ExportService.Scope scope = new ExportService.Scope(job.getProgramId(), job.getRegion(), job.getFromDate(), job.getToDate());
+        Path tmp = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            tmp = Files.createTempFile("export-" + job.getId() + "-", "." + job.getFormat());
+            long rows;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                rows = exportService.write(job.getDataset(), job.getFormat(), scope, out);
+            }
+            StorageService.StoredFile stored = storageService.storeFile(tmp, "exports", "." + job.getFormat(),
+                    TabularWriter.contentType(job.getFormat()));
+
+            if (jobs.complete(job.getId(), job.getAttempts(), rows, stored.url(), stored.size(), Instant.now()) == 0) {
+                // Another worker took the job over; its file is the one that will be recorded
+                storageService.deleteFile(stored.url());
+                System.err.println("[WARN] Export job " + job.getId() + " finished after losing its claim, discarded");
+                return;
+            }
+            job.setStatus("DONE");
+            completedCounter.increment();
+            System.out.println("[INFO] Export job " + job.getId() + " (" + job.getDataset() + ") wrote " + rows + " rows");
+        } catch (Exception e) {
+            boolean lastAttempt = job.getAttempts() >= maxAttempts;
+            String status = lastAttempt ? "FAILED" : "QUEUED";
+            try {
+                String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                if (jobs.fail(job.getId(), job.getAttempts(), status, error, Instant.now()) == 0) return;
+            } catch (Exception saveError) {
+                // Left RUNNING; the lease expires and the job is retried or failed then
+                System.err.println("[WARN] Export job " + job.getId() + " failed and could not be updated: " + saveError.getMessage());
+                return;
+            }
+            job.setStatus(status);
+            if (lastAttempt) failedCounter.increment();
+            System.err.println("[WARN] Export job " + job.getId() + " failed: " + e.getMessage());
+        } finally {
+            sample.stop(jobTimer);
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (Exception ignored) {}
+            }
+        }
+
+        if (job.getProgramId() != null && !"QUEUED".equals(job.getStatus())) {
+            try { sseHub.broadcast(Map.of("type", "exports.finished", "programId", job.getProgramId(), "id", job.getId(), "status", job.getStatus())); } catch (Exception ignored) {}
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package app.ysp.service;
+
+import app.ysp.util.TabularWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Bulk CSV/XLSX export of archive tables for one program or every program of a region.
+ *
+ * Rows are read through a server-side cursor with a fixed fetch size and written to the output
+ * as they arrive, so memory stays constant whatever the export size. Writing blocks while the
+ * client (or the file) is not keeping up, which in turn stops the cursor from fetching more.
+ */
+@Service
+public class ExportService {
+    public static final Set<String> FORMATS = Set.of("csv", "xlsx");
+
+    private static final String RESIDENT = "concat_ws(' ', r.first_name, r.last_name)";
+
+    private static final Map<String, Dataset> DATASETS = new LinkedHashMap<>();
+    static {
+        DATASETS.put("ucr_reports", new Dataset("program_ucr_reports", "report_date",
+                "LEFT JOIN (SELECT i.report_id, COUNT(*) FILTER (WHERE NOT i.resolved) AS open_issues, " +
+                "COUNT(*) FILTER (WHERE NOT i.resolved AND i.severity = 'CRITICAL') AS open_critical, " +
+                "COUNT(*) FILTER (WHERE NOT i.resolved AND i.severity = 'HIGH') AS open_high " +
+                "FROM ucr_issue i GROUP BY i.report_id) iss ON iss.report_id = t.id",
+                columns(
+                        "Report Date", "t.report_date",
+                        "Shift", "t.shift_time",
+                        "Staff", "t.staff_name",
+                        "Locked", "t.is_locked",
+                        "Open Issues", "coalesce(iss.open_issues, 0)",
+                        "Open Critical Issues", "coalesce(iss.open_critical, 0)",
+                        "Open High Issues", "coalesce(iss.open_high, 0)",
+                        "Created At", "t.created_at")));
+        DATASETS.put("phone_logs", new Dataset("phone_logs", "call_date_time",
+                "LEFT JOIN program_residents r ON r.id = t.resident_id",
+                columns(
+                        "Call Date/Time", "t.call_date_time",
+                        "Resident", RESIDENT,
+                        "Resident ID", "r.resident_id",
+                        "Call Type", "t.call_type",
+                        "Contact", "t.contact_name",
+                        "Relationship", "t.contact_relationship",
+                        "Phone Number", "t.phone_number",
+                        "Duration (min)", "t.duration_minutes",
+                        "Behavior During Call", "t.behavior_during_call",
+                        "Post-Call Behavior", "t.post_call_behavior",
+                        "Terminated Early", "t.call_terminated_early",
+                        "Termination Reason", "t.termination_reason",
+                        "Comments", "t.additional_comments")));
+        DATASETS.put("medication_administrations", new Dataset("medication_administrations", "administration_date",
+                "LEFT JOIN program_residents r ON r.id = t.resident_id " +
+                "LEFT JOIN resident_medications m ON m.id = t.resident_medication_id " +
+                "LEFT JOIN users u ON u.id = t.administered_by_staff_id",
+                columns(
+                        "Date", "t.administration_date",
+                        "Time", "t.administration_time",
+                        "Shift", "t.shift",
+                        "Resident", RESIDENT,
+                        "Resident ID", "r.resident_id",
+                        "Medication", "m.medication_name",
+                        "Action", "t.action",
+                        "Late", "t.was_late",
+                        "Minutes Late", "t.minutes_late",
+                        "Administered By", "coalesce(u.full_name, concat_ws(' ', u.first_name, u.last_name))",
+                        "Notes", "t.notes")));
+        DATASETS.put("inventory_transactions", new Dataset("inventory_transactions", "transaction_date",
+                "LEFT JOIN inventory_items it ON it.id = t.inventory_item_id",
+                columns(
+                        "Date", "t.transaction_date",
+                        "Item", "it.item_name",
+                        "Type", "t.transaction_type",
+                        "Quantity", "t.quantity",
+                        "Quantity Before", "t.quantity_before",
+                        "Quantity After", "t.quantity_after",
+                        "Staff", "t.staff_name",
+                        "Purpose", "t.purpose",
+                        "Recipient Department", "t.recipient_department",
+                        "Notes", "t.notes")));
+        DATASETS.put("visitations", new Dataset("visitations", "scheduled_date",
+                "LEFT JOIN program_residents r ON r.id = t.resident_id",
+                columns(
+                        "Scheduled Date", "t.scheduled_date",
+                        "Scheduled Start", "t.scheduled_start_time",
+                        "Scheduled End", "t.scheduled_end_time",
+                        "Resident", RESIDENT,
+                        "Resident ID", "r.resident_id",
+                        "Visit Type", "t.visit_type",
+                        "Status", "t.status",
+                        "Approval", "t.approval_status",
+                        "Room", "t.visitation_room",
+                        "Supervising Staff", "(SELECT string_agg(coalesce(u.full_name, concat_ws(' ', u.first_name, u.last_name)), ', ' " +
+                                "ORDER BY u.id) FROM visitation_supervising_staff vs JOIN users u ON u.id = vs.staff_id " +
+                                "WHERE vs.visitation_id = t.id)",
+                        "Actual Start", "t.actual_start_time",
+                        "Actual End", "t.actual_end_time",
+                        "Incident", "t.incident_occurred",
+                        "Incident Details", "t.incident_details",
+                        "Notes", "t.visit_notes",
+                        "Denial Reason", "t.denial_reason")));
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public ExportService(EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.exports.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        // The PostgreSQL driver only uses a cursor (honours the fetch size) inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public static boolean isDataset(String dataset) {
+        return DATASETS.containsKey(dataset);
+    }
+
+    public static boolean isFormat(String format) {
+        return FORMATS.contains(format);
+    }
+
+    /**
+     * Which rows to export: one program, or every program of a region, optionally limited to
+     * [from, to] on the dataset's date column
+     */
+    public record Scope(Long programId, String region, LocalDate from, LocalDate to) {
+        public static Scope program(Long programId, LocalDate from, LocalDate to) {
+            return new Scope(programId, null, from, to);
+        }
+
+        public static Scope region(String region, LocalDate from, LocalDate to) {
+            return new Scope(null, region, from, to);
+        }
+    }
+
+    /**
+     * Suggested download name, e.g. phone_logs_program-12_2025-01-01_2025-01-31.xlsx
+     */
+    public static String fileName(String dataset, Scope scope, String format) {
+        StringBuilder sb = new StringBuilder(dataset);
+        if (scope.programId() != null) {
+            sb.append("_program-").append(scope.programId());
+        } else {
+            sb.append('_').append(scope.region().toLowerCase().replaceAll("[^a-z0-9]+", "-"));
+        }
+        if (scope.from() != null) sb.append('_').append(scope.from());
+        if (scope.to() != null) sb.append('_').append(scope.to());
+        return sb.append('.').append(format).toString();
+    }
+
+    /**
+     * Stream the dataset to out in the given format. Does not close out.
+     * @return number of data rows written
+     */
+    public long write(String dataset, String format, Scope scope, OutputStream out) throws IOException {
+        Dataset ds = DATASETS.get(dataset);
+        if (ds == null) throw new IllegalArgumentException("Unknown dataset: " + dataset);
+        TabularWriter writer = TabularWriter.forFormat(format, out);
+        try {
+            Long rows = readOnlyTransaction.execute(status -> {
+                try {
+                    return copy(ds, scope, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return rows != null ? rows : 0L;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long copy(Dataset ds, Scope scope, TabularWriter writer) throws IOException {
+        List<String> headers = new ArrayList<>();
+        List<String> selects = new ArrayList<>();
+        if (scope.programId() == null) {
+            headers.add("Program");
+            selects.add("p.name");
+        }
+        for (Column c : ds.columns()) {
+            headers.add(c.header());
+            selects.add(c.expression());
+        }
+
+        String dateColumn = "t." + ds.dateColumn();
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", selects))
+                .append(" FROM ").append(ds.table()).append(" t JOIN programs p ON p.id = t.program_id ")
+                .append(ds.joins())
+                .append(scope.programId() != null ? " WHERE t.program_id = :programId" : " WHERE lower(p.region) = lower(:region)");
+        if (scope.from() != null) sql.append(" AND ").append(dateColumn).append(" >= CAST(:from AS date)");
+        if (scope.to() != null) sql.append(" AND ").append(dateColumn).append(" < CAST(:to AS date) + 1");
+        sql.append(" ORDER BY ").append(scope.programId() == null ? "p.name, t.program_id, " : "")
+           .append(dateColumn).append(", t.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (scope.programId() != null) query.setParameter("programId", scope.programId());
+        else query.setParameter("region", scope.region());
+        if (scope.from() != null) query.setParameter("from", scope.from());
+        if (scope.to() != null) query.setParameter("to", scope.to());
+
+        writer.header(headers);
+        long rows = 0;
+        try (Stream<?> stream = query.getResultStream()) {
+            var it = stream.iterator();
+            while (it.hasNext()) {
+                Object row = it.next();
+                writer.row(row instanceof Object[] values ? values : new Object[]{row});
+                rows++;
+            }
+        }
+        writer.finish();
+        return rows;
+    }
+
+    private static List<Column> columns(String... pairs) {
+        List<Column> out = new ArrayList<>(pairs.length / 2);
+        for (int i = 0; i < pairs.length; i += 2) {
+            out.add(new Column(pairs[i], pairs[i + 1]));
+        }
+        return List.copyOf(out);
+    }
+
+    private record Column(String header, String expression) {}
+
+    private record Dataset(String table, String dateColumn, String joins, List<Column> columns) {}
+}
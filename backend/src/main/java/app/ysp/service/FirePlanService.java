@@ -0,0 +1,96 @@
+package app.ysp.service;
+
+import app.ysp.entity.FirePlan;
+import app.ysp.entity.Program;
+import app.ysp.repo.FirePlanRepository;
+import app.ysp.repo.ProgramRepository;
+import app.ysp.util.JsonUtil;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+public class FirePlanService {
+
+    private final ProgramRepository programs;
+    private final FirePlanRepository firePlans;
+
+    public FirePlanService(ProgramRepository programs, FirePlanRepository firePlans) {
+        this.programs = programs;
+        this.firePlans = firePlans;
+    }
+
+    /**
+     * Apply a PATCH to the active plan of a program, creating the plan when there is none.
+     * Whole fields and in-place JSON paths commit together, so a rejected path leaves nothing applied.
+     * @param paths dotted body keys split into segments, the first naming the JSON field
+     * @return the updated plan, empty when the program does not exist
+     * @throws IllegalArgumentException when a value or path does not fit the stored plan
+     */
+    @Transactional
+    public Optional<FirePlan> updateCurrentPlan(Long programId, Map<String, Object> body, Map<String, List<String>> paths) {
+        FirePlan plan = firePlans.findActivePlan(programId).orElse(null);
+
+        // Auto-create plan if it doesn't exist
+        if (plan == null) {
+            Optional<Program> progOpt = programs.findById(programId);
+            if (progOpt.isEmpty()) return Optional.empty();
+
+            plan = new FirePlan();
+            plan.setProgram(progOpt.get());
+            plan.setGeneratedDate(LocalDate.now());
+            plan.setStatus("Active");
+        }
+        if (body.containsKey("totalStaff")) plan.setTotalStaff(Integer.parseInt(Objects.toString(body.get("totalStaff"), "0")));
+        if (body.containsKey("totalResidents")) plan.setTotalResidents(Integer.parseInt(Objects.toString(body.get("totalResidents"), "0")));
+        if (body.containsKey("specialAssignments")) plan.setSpecialAssignments(Integer.parseInt(Objects.toString(body.get("specialAssignments"), "0")));
+        if (body.containsKey("primaryRoute")) plan.setPrimaryRoute(Objects.toString(body.get("primaryRoute"), null));
+        if (body.containsKey("secondaryRoute")) plan.setSecondaryRoute(Objects.toString(body.get("secondaryRoute"), null));
+
+        if (body.containsKey("staffAssignments")) {
+            plan.setStaffAssignmentsJson(JsonUtil.serialize(body.get("staffAssignments")));
+        }
+
+        if (body.containsKey("residentStatus")) {
+            plan.setResidentStatusJson(JsonUtil.serialize(body.get("residentStatus")));
+        }
+
+        if (body.containsKey("routeConfig")) {
+            plan.setRouteConfigJson(JsonUtil.serialize(body.get("routeConfig")));
+        }
+
+        // Flushed before the path updates, which run as SQL against the stored row
+        FirePlan saved = firePlans.saveAndFlush(plan);
+        if (paths.isEmpty()) return Optional.of(saved);
+
+        try {
+            for (Map.Entry<String, List<String>> path : paths.entrySet()) {
+                setPath(saved.getId(), path.getValue(), body.get(path.getKey()));
+            }
+        } catch (DataAccessException e) {
+            throw new IllegalArgumentException("Path does not match the stored document", e);
+        }
+        // The path updates clear the persistence context, so this reloads the row
+        return Optional.of(firePlans.findById(saved.getId()).orElse(saved));
+    }
+
+    private void setPath(Long planId, List<String> segments, Object value) {
+        List<String> inner = segments.subList(1, segments.size());
+        String path = "{" + String.join(",", inner) + "}";
+        String json = JsonUtil.serialize(value);
+        if (json == null) json = "null";
+        String empty = inner.get(0).chars().allMatch(Character::isDigit) ? "[]" : "{}";
+        switch (segments.get(0)) {
+            case "staffAssignments" -> firePlans.setStaffAssignmentsPath(planId, path, json, empty);
+            case "residentStatus" -> firePlans.setResidentStatusPath(planId, path, json, empty);
+            case "routeConfig" -> firePlans.setRouteConfigPath(planId, path, json, empty);
+            default -> throw new IllegalArgumentException("Unknown JSON field " + segments.get(0));
+        }
+    }
+}
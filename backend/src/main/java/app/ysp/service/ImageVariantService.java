@@ -0,0 +1,151 @@
+package app.ysp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates fixed-width JPEG renditions of uploaded images (resident photos, floor plans)
+ * so list views and cards do not download the multi-megabyte original.
+ */
+@Service
+public class ImageVariantService {
+    public static final int THUMBNAIL = 64;
+    public static final int MEDIUM = 256;
+    public static final int LARGE = 1024;
+    private static final int[] WIDTHS = {THUMBNAIL, MEDIUM, LARGE};
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final StorageService storageService;
+    private final Timer generateTimer;
+
+    public ImageVariantService(StorageService storageService, MeterRegistry meterRegistry) {
+        this.storageService = storageService;
+        this.generateTimer = Timer.builder("ysp.storage.image-variants")
+                .description("Time spent generating image variants for an upload")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create the 64/256/1024 px variants of a stored image. Widths at or above the original
+     * width are skipped. Failures are logged and leave the original usable on its own.
+     */
+    public void createVariants(StorageService.StoredFile stored, MultipartFile file) {
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) return;
+        // An identical image uploaded before already has its variants
+        if (storageService.hasVariants(stored.key())) return;
+
+        generateTimer.record(() -> {
+            try {
+                BufferedImage source = decode(file);
+                if (source == null) return;
+                for (int width : WIDTHS) {
+                    if (width >= source.getWidth()) break;
+                    storageService.storeVariant(stored.key(), width, encodeJpeg(scale(source, width)));
+                }
+            } catch (Exception e) {
+                System.err.println("[WARN] Failed to create image variants for " + stored.key() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Variant URLs keyed by width, presigned for display; missing widths fall back to the closest stored file
+     */
+    public Map<Integer, String> presignedVariants(String fileUrl, java.time.Duration expiration) {
+        Map<Integer, String> out = new LinkedHashMap<>();
+        for (int width : WIDTHS) {
+            out.put(width, storageService.generatePresignedUrl(storageService.variantUrl(fileUrl, width), expiration));
+        }
+        return out;
+    }
+
+    /**
+     * Decode with subsampling so a large photo is never held at full resolution when
+     * twice the largest variant width is enough
+     */
+    private static BufferedImage decode(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream(); ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int sourceWidth = reader.getWidth(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (LARGE * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscale by repeated halving then one bilinear step, flattening transparency onto white
+     */
+    private static BufferedImage scale(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        do {
+            if (w > width * 2) {
+                w /= 2;
+                h /= 2;
+            } else {
+                w = width;
+                h = targetHeight;
+            }
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
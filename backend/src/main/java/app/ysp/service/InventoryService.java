@@ -16,7 +16,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.time.Instant;
@@ -38,8 +37,10 @@ public class InventoryService {
     private final ProgramAssignmentRepository assignmentRepository;
     private final UserRepository userRepository;
     private final SseHub sseHub;
-    private final MailService mailService;
-    private final TemplateEngine templateEngine;
+    private final MailOutboxService mailOutbox;
+    private final NotificationRenderer notificationRenderer;
+    private final StockLedger stockLedger;
+    private final NumberAllocator numberAllocator;
     
     public InventoryService(
             InventoryItemRepository itemRepository,
@@ -51,8 +52,10 @@ public class InventoryService {
             ProgramAssignmentRepository assignmentRepository,
             UserRepository userRepository,
             SseHub sseHub,
-            MailService mailService,
-            TemplateEngine templateEngine) {
+            MailOutboxService mailOutbox,
+            NotificationRenderer notificationRenderer,
+            StockLedger stockLedger,
+            NumberAllocator numberAllocator) {
         this.itemRepository = itemRepository;
         this.transactionRepository = transactionRepository;
         this.requisitionRepository = requisitionRepository;
@@ -62,8 +65,10 @@ public class InventoryService {
         this.assignmentRepository = assignmentRepository;
         this.userRepository = userRepository;
         this.sseHub = sseHub;
-        this.mailService = mailService;
-        this.templateEngine = templateEngine;
+        this.mailOutbox = mailOutbox;
+        this.notificationRenderer = notificationRenderer;
+        this.stockLedger = stockLedger;
+        this.numberAllocator = numberAllocator;
     }
     
     // ========== INVENTORY ITEMS ==========
@@ -175,14 +180,15 @@ public class InventoryService {
         item.setLocation(request.getLocation());
         item.setStorageZone(request.getStorageZone());
         
-        // If quantity changed, create transaction
+        // If quantity changed, create transaction against the quantity actually replaced
         if (request.getQuantity() != null && !request.getQuantity().equals(oldQuantity)) {
-            int difference = request.getQuantity() - oldQuantity;
-            item.setCurrentQuantity(request.getQuantity());
-            item.setLastRestockedDate(Instant.now());
-            
-            createTransaction(item, difference > 0 ? "ADDITION" : "ADJUSTMENT", 
-                            difference, staff, "Manual adjustment", request.getNotes());
+            int previous = stockLedger.setQuantity(item, programId, request.getQuantity());
+            int difference = request.getQuantity() - previous;
+            if (difference != 0) {
+                item.setLastRestockedDate(Instant.now());
+                createTransaction(item, difference > 0 ? "ADDITION" : "ADJUSTMENT", 
+                                difference, staff, "Manual adjustment", request.getNotes());
+            }
         }
         
         // Recalculate status
@@ -224,14 +230,8 @@ public class InventoryService {
             throw new RuntimeException("Insufficient quantity available");
         }
         
-        // Update item quantity
-        int oldQuantity = item.getCurrentQuantity();
-        item.setCurrentQuantity(oldQuantity - request.getQuantity());
-        
-        // Recalculate status
-        item.setStatus(calculateStatus(item.getCurrentQuantity(), item.getMinimumQuantity()));
-        
-        itemRepository.save(item);
+        // Take the quantity atomically; a concurrent checkout may have drained it since the read above
+        stockLedger.withdraw(item, programId, request.getQuantity());
         
         // Create transaction
         InventoryTransaction transaction = createTransaction(
@@ -297,7 +297,7 @@ public class InventoryService {
                 .orElseThrow(() -> new RuntimeException("Staff not found"));
         
         // Generate base requisition number for this batch
-        String baseRequisitionNumber = generateRequisitionNumber();
+        String baseRequisitionNumber = numberAllocator.nextRequisitionNumber(programId);
         List<InventoryRequisition> requisitions = new java.util.ArrayList<>();
         
         // Create a requisition for each item
@@ -336,8 +336,10 @@ public class InventoryService {
             requisition.setRequestDate(request.getRequestDate() != null ? request.getRequestDate() : LocalDate.now());
             requisition.setStatus("PENDING");
             
-            requisitions.add(requisitionRepository.save(requisition));
+            requisitions.add(requisition);
         }
+        // One JDBC batch for all line items
+        requisitions = requisitionRepository.saveAll(requisitions);
         
         // Send single email with all items
         sendRequisitionEmailsMultiple(program, requisitions, request);
@@ -493,12 +495,7 @@ public class InventoryService {
      * Get inventory statistics
      */
     public Map<String, Object> getInventoryStats(Long programId) {
-        Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("totalItems", itemRepository.countByProgramId(programId));
-        stats.put("lowStockCount", itemRepository.countByProgramIdAndStatus(programId, "LOW"));
-        stats.put("criticalStockCount", itemRepository.countByProgramIdAndStatus(programId, "CRITICAL"));
-        stats.put("outOfStockCount", itemRepository.countByProgramIdAndStatus(programId, "OUT_OF_STOCK"));
+        Map<String, Object> stats = new HashMap<>(getInventoryCounts(programId));
         
         // Get low stock items
         List<InventoryItem> lowStockItems = itemRepository.findLowStockItems(programId);
@@ -515,6 +512,18 @@ public class InventoryService {
         return stats;
     }
     
+    /**
+     * Get inventory stock counters
+     */
+    public Map<String, Object> getInventoryCounts(Long programId) {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("totalItems", itemRepository.countByProgramId(programId));
+        counts.put("lowStockCount", itemRepository.countByProgramIdAndStatus(programId, "LOW"));
+        counts.put("criticalStockCount", itemRepository.countByProgramIdAndStatus(programId, "CRITICAL"));
+        counts.put("outOfStockCount", itemRepository.countByProgramIdAndStatus(programId, "OUT_OF_STOCK"));
+        return counts;
+    }
+    
     // ========== HELPER METHODS ==========
     
     private InventoryTransaction createTransaction(InventoryItem item, String type, Integer quantity,
@@ -535,24 +544,9 @@ public class InventoryService {
     }
     
     private String calculateStatus(Integer currentQuantity, Integer minimumQuantity) {
-        if (currentQuantity == 0) {
-            return "OUT_OF_STOCK";
-        } else if (currentQuantity <= (minimumQuantity * 0.5)) {
-            return "CRITICAL";
-        } else if (currentQuantity < minimumQuantity) {
-            return "LOW";
-        } else {
-            return "GOOD";
-        }
+        return StockLedger.stockStatus(currentQuantity, minimumQuantity);
     }
     
-    private String generateRequisitionNumber() {
-        int year = LocalDate.now().getYear();
-        String pattern = "REQ-" + year + "-%";
-        Integer maxNumber = requisitionRepository.findMaxRequisitionNumberForYear(pattern);
-        int nextNumber = (maxNumber != null ? maxNumber : 0) + 1;
-        return String.format("REQ-%d-%03d", year, nextNumber);
-    }
     
     // ========== MAPPERS ==========
     
@@ -733,13 +727,11 @@ public class InventoryService {
             context.setVariable("currentYear", java.time.Year.now().getValue());
             
             // Render template
-            String html = templateEngine.process("requisition-notification", context);
+            String html = notificationRenderer.render("requisition-notification", context);
             
-            // Send to all recipients
-            for (String email : recipients) {
-                mailService.sendRawHtml(email, subject, html);
-                System.out.println("[INFO] Sent requisition notification email to: " + email);
-            }
+            // Queue for all recipients
+            int queued = mailOutbox.enqueue(recipients, subject, html);
+            System.out.println("[INFO] Queued requisition notification email for " + queued + " recipient(s)");
             
         } catch (Exception e) {
             System.err.println("[ERROR] Failed to send requisition emails: " + e.getMessage());
@@ -841,13 +833,11 @@ public class InventoryService {
             context.setVariable("currentYear", java.time.Year.now().getValue());
             
             // Render template
-            String html = templateEngine.process("requisition-notification", context);
+            String html = notificationRenderer.render("requisition-notification", context);
             
-            // Send to all recipients
-            for (String email : recipients) {
-                mailService.sendRawHtml(email, subject, html);
-                System.out.println("[INFO] Sent multi-item requisition notification email to: " + email);
-            }
+            // Queue for all recipients
+            int queued = mailOutbox.enqueue(recipients, subject, html);
+            System.out.println("[INFO] Queued multi-item requisition notification email for " + queued + " recipient(s)");
             
         } catch (Exception e) {
             System.err.println("[ERROR] Failed to send requisition emails: " + e.getMessage());
@@ -915,13 +905,11 @@ public class InventoryService {
             context.setVariable("currentYear", java.time.Year.now().getValue());
             
             // Render template
-            String html = templateEngine.process("requisition-status-notification", context);
+            String html = notificationRenderer.render("requisition-status-notification", context);
             
-            // Send emails
-            for (String email : recipients) {
-                mailService.sendRawHtml(email, subject, html);
-                System.out.println("[INFO] Sent status change notification to: " + email);
-            }
+            // Queue emails for delivery
+            int queued = mailOutbox.enqueue(recipients, subject, html);
+            System.out.println("[INFO] Queued status change notification email for " + queued + " recipient(s)");
             
         } catch (Exception e) {
             System.err.println("[ERROR] Failed to send status change emails: " + e.getMessage());
@@ -1035,15 +1023,25 @@ public class InventoryService {
         // Save audit first to get the ID
         InventoryAudit savedAudit = auditRepository.save(audit);
         
-        // Now save audit items with reference to saved audit
+        // Load all audited items with one query
+        Map<Long, InventoryItem> itemsById = new HashMap<>();
+        for (InventoryItem i : itemRepository.findAllById(
+                items.stream().map(d -> Long.valueOf(d.get("id").toString())).collect(Collectors.toSet()))) {
+            itemsById.put(i.getId(), i);
+        }
+        
+        // Now save audit items with reference to saved audit, as one JDBC batch
+        List<InventoryAuditItem> auditItems = new java.util.ArrayList<>();
         for (Map<String, Object> itemData : items) {
             Long itemId = Long.valueOf(itemData.get("id").toString());
             Integer physicalCount = Integer.valueOf(itemData.get("physicalCount").toString());
             Integer systemCount = Integer.valueOf(itemData.get("currentQuantity").toString());
             String notes = itemData.get("notes") != null ? itemData.get("notes").toString() : "";
             
-            InventoryItem inventoryItem = itemRepository.findById(itemId)
-                    .orElseThrow(() -> new RuntimeException("Item not found: " + itemId));
+            InventoryItem inventoryItem = itemsById.get(itemId);
+            if (inventoryItem == null) {
+                throw new RuntimeException("Item not found: " + itemId);
+            }
             
             InventoryAuditItem auditItem = new InventoryAuditItem();
             auditItem.setAudit(savedAudit);
@@ -1052,9 +1050,9 @@ public class InventoryService {
             auditItem.setActualQuantity(physicalCount);
             auditItem.setDiscrepancy(physicalCount - systemCount);
             auditItem.setDiscrepancyReason(notes);
-            
-            auditItemRepository.save(auditItem);
+            auditItems.add(auditItem);
         }
+        auditItemRepository.saveAll(auditItems);
         
         // Send email notification to PDS and ASPD
         try {
@@ -1111,12 +1109,10 @@ public class InventoryService {
         context.setVariable("discrepancies", discrepancies);
         context.setVariable("hasDiscrepancies", discrepancies > 0);
         
-        String html = templateEngine.process("audit-notification", context);
+        String html = notificationRenderer.render("audit-notification", context);
         
-        // Send to all PDS, ASPD, and Directors
-        for (String email : recipients) {
-            mailService.sendRawHtml(email, subject, html);
-            System.out.println("[INFO] Sent audit notification email to: " + email);
-        }
+        // Queue to all PDS, ASPD, and Directors
+        int queued = mailOutbox.enqueue(recipients, subject, html);
+        System.out.println("[INFO] Queued audit notification email for " + queued + " recipient(s)");
     }
 }
\ No newline at end of file
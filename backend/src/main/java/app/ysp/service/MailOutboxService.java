@@ -0,0 +1,221 @@
+package app.ysp.service;
+
+import app.ysp.entity.MailOutboxMessage;
+import app.ysp.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persisted outbox for notification emails.
+ *
+ * Callers enqueue a rendered message inside their own transaction, so the request returns
+ * without touching SMTP and the email is only sent if the business change commits.
+ * A scheduled dispatcher claims due messages in batches, sends each batch over one SMTP
+ * connection and retries failures with exponential backoff.
+ */
+@Service
+public class MailOutboxService {
+    private static final List<String> QUEUED_STATUSES = List.of("PENDING", "SENDING");
+
+    private final MailOutboxRepository outboxRepository;
+    private final MailService mailService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer deliveryLatency;
+    private final Timer batchTimer;
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.mail.outbox.retention-days:7}")
+    private long retentionDays;
+
+    public MailOutboxService(MailOutboxRepository outboxRepository,
+                             MailService mailService,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailService = mailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("ysp.mail.outbox.depth", queueDepth, AtomicLong::get)
+                .description("Emails waiting in the outbox")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("ysp.mail.outbox.latency")
+                .description("Time from enqueue to successful SMTP delivery")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("ysp.mail.outbox.batch")
+                .description("SMTP time per dispatched batch")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("ysp.mail.outbox.sent");
+        this.retryCounter = meterRegistry.counter("ysp.mail.outbox.retried");
+        this.failedCounter = meterRegistry.counter("ysp.mail.outbox.failed");
+    }
+
+    /**
+     * Queue one email per distinct recipient. Joins the caller's transaction when there is one.
+     * Returns the number of messages queued.
+     */
+    @Transactional
+    public int enqueue(Collection<String> recipients, String subject, String html) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String r : recipients) {
+            if (r != null && !r.isBlank()) distinct.add(r.trim());
+        }
+        List<MailOutboxMessage> messages = new ArrayList<>();
+        for (String to : distinct) {
+            MailOutboxMessage m = new MailOutboxMessage();
+            m.setRecipient(to);
+            m.setSubject(subject);
+            m.setHtmlBody(html);
+            messages.add(m);
+        }
+        outboxRepository.saveAll(messages);
+        queueDepth.addAndGet(messages.size());
+        return messages.size();
+    }
+
+    /**
+     * Drain due messages until the outbox is empty or a batch comes back short
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        try {
+            List<MailOutboxMessage> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) sendBatch(batch);
+            } while (batch.size() >= batchSize);
+            queueDepth.set(outboxRepository.countByStatusIn(QUEUED_STATUSES));
+        } catch (Exception e) {
+            System.err.println("[WARN] Mail outbox dispatch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop delivered messages past the retention window
+     */
+    @Scheduled(cron = "${app.mail.outbox.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeSent() {
+        int removed = outboxRepository.deleteSentBefore(Instant.now().minus(Duration.ofDays(retentionDays)));
+        if (removed > 0) {
+            System.out.println("[INFO] Purged " + removed + " delivered emails from outbox");
+        }
+    }
+
+    private List<MailOutboxMessage> claimBatch() {
+        List<MailOutboxMessage> claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<MailOutboxMessage> due = outboxRepository.lockDueBatch(now, batchSize);
+            for (MailOutboxMessage m : due) {
+                // Lease: if this node dies mid-send the message becomes due again
+                m.setStatus("SENDING");
+                m.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return outboxRepository.saveAll(due);
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private void sendBatch(List<MailOutboxMessage> batch) {
+        Map<MimeMessage, MailOutboxMessage> byMime = new IdentityHashMap<>();
+        Map<MailOutboxMessage, String> failures = new IdentityHashMap<>();
+        for (MailOutboxMessage m : batch) {
+            try {
+                byMime.put(mailService.buildHtmlMessage(m.getRecipient(), m.getSubject(), m.getHtmlBody()), m);
+            } catch (Exception e) {
+                failures.put(m, e.getMessage());
+            }
+        }
+
+        if (!byMime.isEmpty()) {
+            Timer.Sample sample = Timer.start();
+            try {
+                mailService.sendBatch(byMime.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                for (Map.Entry<Object, Exception> failed : e.getFailedMessages().entrySet()) {
+                    MailOutboxMessage m = byMime.get(failed.getKey());
+                    if (m != null) failures.put(m, failed.getValue().getMessage());
+                }
+                if (e.getFailedMessages().isEmpty()) {
+                    // Connection-level failure: nothing was sent
+                    for (MailOutboxMessage m : byMime.values()) failures.put(m, e.getMessage());
+                }
+            } catch (MailException e) {
+                for (MailOutboxMessage m : byMime.values()) failures.put(m, e.getMessage());
+            } finally {
+                sample.stop(batchTimer);
+            }
+        }
+
+        Instant now = Instant.now();
+        for (MailOutboxMessage m : batch) {
+            m.setAttempts(m.getAttempts() + 1);
+            if (failures.containsKey(m)) {
+                m.setLastError(failures.get(m));
+                if (m.getAttempts() >= maxAttempts) {
+                    m.setStatus("FAILED");
+                    failedCounter.increment();
+                    System.err.println("[ERROR] Giving up on email to " + m.getRecipient() + ": " + m.getLastError());
+                } else {
+                    m.setStatus("PENDING");
+                    m.setNextAttemptAt(now.plusSeconds(backoffSeconds(m.getAttempts())));
+                    retryCounter.increment();
+                }
+            } else {
+                m.setStatus("SENT");
+                m.setSentAt(now);
+                m.setLastError(null);
+                sentCounter.increment();
+                if (m.getCreatedAt() != null) {
+                    deliveryLatency.record(Duration.between(m.getCreatedAt(), now));
+                }
+            }
+        }
+        outboxRepository.saveAll(batch);
+    }
+
+    private long backoffSeconds(int attempts) {
+        long delay = initialBackoffSeconds << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffSeconds);
+    }
+}
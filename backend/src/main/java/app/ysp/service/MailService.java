@@ -1,29 +1,26 @@
 package app.ysp.service;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import org.springframework.core.io.ByteArrayResource;
 
 @Service
 public class MailService {
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final NotificationRenderer renderer;
 
     @Value("${spring.mail.from:platform@ysp.app}")
     private String from;
 
-    @Value("${app.brand.logoUrl:}")
-    private String brandLogoUrl;
-
-    public MailService(JavaMailSender mailSender, TemplateEngine templateEngine) {
+    public MailService(JavaMailSender mailSender, NotificationRenderer renderer) {
         this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
+        this.renderer = renderer;
     }
 
     public void sendMfaCode(String to, String code) {
@@ -34,36 +31,21 @@ public class MailService {
             // Space out the 5 digits for the display line e.g. "8 4 7 2 9"
             String codeSpaced = String.join(" ", code.split(""));
             ctx.setVariable("codeSpaced", codeSpaced);
-            boolean cidAttached = false;
-            String html = templateEngine.process("mfa-code-inline", ctx);
+            // Inline CID when the brand logo is a data URL, so email clients render it reliably
+            String logoUrl = renderer.logoUrl();
+            if (logoUrl != null) ctx.setVariable("logoUrl", logoUrl);
+            String html = renderer.render("mfa-code-inline", ctx);
 
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true);
             helper.setFrom(from);
             helper.setTo(to);
             helper.setSubject("Your DYS MFA Code");
-            // If brandLogoUrl is a data URL, embed it as inline image for reliable email rendering
-            if (brandLogoUrl != null && !brandLogoUrl.isBlank() && brandLogoUrl.startsWith("data:")) {
-                try {
-                    int commaIdx = brandLogoUrl.indexOf(',');
-                    String meta = brandLogoUrl.substring(5, commaIdx); // e.g. image/png;base64
-                    String mimeType = meta.split(";")[0];
-                    String b64 = brandLogoUrl.substring(commaIdx + 1);
-                    byte[] bytes = java.util.Base64.getDecoder().decode(b64);
-                    helper.addInline("brandLogo", new ByteArrayResource(bytes), mimeType);
-                    // Re-render template now that we know CID
-                    ctx.setVariable("logoUrl", "cid:brandLogo");
-                    html = templateEngine.process("mfa-code-inline", ctx);
-                    cidAttached = true;
-                } catch (Exception ignore) {
-                    // fall back to using provided URL in template
-                }
-            }
-            if (!cidAttached && brandLogoUrl != null && !brandLogoUrl.isBlank()) {
-                ctx.setVariable("logoUrl", brandLogoUrl);
-                html = templateEngine.process("mfa-code-inline", ctx);
-            }
+            // Body must be set before inline parts are added
             helper.setText(html, true);
+            if (renderer.inlineLogo() != null) {
+                helper.addInline(NotificationRenderer.LOGO_CID, renderer.inlineLogo(), renderer.inlineLogoMimeType());
+            }
             mailSender.send(message);
         } catch (Exception e) {
             // Do not fail auth flow on mail errors during local dev
@@ -95,15 +77,30 @@ public class MailService {
 
     public void sendRawHtml(String to, String subject, String html) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setFrom(from);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(html, true);
-            mailSender.send(message);
+            mailSender.send(buildHtmlMessage(to, subject, html));
         } catch (Exception e) {
             System.err.println("[WARN] Failed to send email: " + e.getMessage());
         }
     }
+
+    /**
+     * Build an HTML message from the configured sender without sending it
+     */
+    public MimeMessage buildHtmlMessage(String to, String subject, String html) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom(from);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(html, true);
+        return message;
+    }
+
+    /**
+     * Send several messages over a single SMTP connection.
+     * Per-message failures are reported through MailSendException.getFailedMessages().
+     */
+    public void sendBatch(MimeMessage... messages) throws MailException {
+        mailSender.send(messages);
+    }
 }
@@ -10,8 +10,10 @@ import app.ysp.repository.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -31,6 +33,7 @@ public class MedicationService {
     private final ProgramResidentRepository residentRepository;
     private final UserRepository userRepository;
     private final SseHub sseHub;
+    private final StockLedger stockLedger;
 
     public MedicationService(
             ResidentMedicationRepository medicationRepository,
@@ -41,7 +44,8 @@ public class MedicationService {
             ProgramRepository programRepository,
             ProgramResidentRepository residentRepository,
             UserRepository userRepository,
-            SseHub sseHub) {
+            SseHub sseHub,
+            StockLedger stockLedger) {
         this.medicationRepository = medicationRepository;
         this.administrationRepository = administrationRepository;
         this.auditRepository = auditRepository;
@@ -51,6 +55,7 @@ public class MedicationService {
         this.residentRepository = residentRepository;
         this.userRepository = userRepository;
         this.sseHub = sseHub;
+        this.stockLedger = stockLedger;
     }
 
     // ============ RESIDENT MEDICATIONS ============
@@ -138,19 +143,16 @@ public class MedicationService {
         String medType = medication.getMedicationType();
         
         if ("COUNTABLE".equals(medType)) {
-            // Normal medications - decrement count
-            Integer currentCount = medication.getCurrentCount();
-            Integer newCount = Math.max(0, currentCount - quantity);
-            medication.setCurrentCount(newCount);
+            // Normal medications - decrement count atomically, not below zero
+            stockLedger.take(medication, quantity);
         } else if ("NON_COUNTABLE".equals(medType)) {
             // Ointments, sprays, mouthwash - always keep at 1 (always available)
             medication.setCurrentCount(1);
+            medicationRepository.save(medication);
         } else if ("RECORD_ONLY".equals(medType)) {
             // Inhalers, ventolins - don't change count (record only)
             // Do nothing - just log the administration
         }
-        
-        medicationRepository.save(medication);
     }
 
     /**
@@ -162,6 +164,7 @@ public class MedicationService {
                 .orElseThrow(() -> new RuntimeException("Medication not found"));
         medication.setStatus("DISCONTINUED");
         medicationRepository.save(medication);
+        broadcastMedicationUpdated(medication);
     }
 
     /**
@@ -190,6 +193,7 @@ public class MedicationService {
         
         medication.setUpdatedAt(Instant.now());
         medicationRepository.save(medication);
+        broadcastMedicationUpdated(medication);
     }
 
     /**
@@ -202,6 +206,27 @@ public class MedicationService {
         medication.setStatus("DELETED");
         medication.setUpdatedAt(Instant.now());
         medicationRepository.save(medication);
+        broadcastMedicationUpdated(medication);
+    }
+
+    private void broadcastMedicationUpdated(ResidentMedication medication) {
+        if (medication.getProgram() == null) return;
+        sseHub.broadcast(Map.of(
+                "type", "medication_updated",
+                "programId", medication.getProgram().getId(),
+                "medicationId", medication.getId()
+        ));
+    }
+
+    /**
+     * Dashboard counters: active medications, open alerts and audits awaiting review
+     */
+    public Map<String, Object> getMedicationCounts(Long programId) {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("activeMedications", medicationRepository.countByProgram_IdAndStatus(programId, "ACTIVE"));
+        counts.put("activeAlerts", alertRepository.countByProgram_IdAndStatus(programId, "ACTIVE"));
+        counts.put("pendingAudits", auditRepository.countByProgram_IdAndStatus(programId, "PENDING"));
+        return counts;
     }
 
     // ============ MEDICATION ADMINISTRATION ============
@@ -237,8 +262,7 @@ public class MedicationService {
 
         // If administered, decrement count
         if ("ADMINISTERED".equals(request.getAction())) {
-            medication.setCurrentCount(medication.getCurrentCount() - 1);
-            medicationRepository.save(medication);
+            stockLedger.adjust(medication, -1);
         }
 
         // Create alerts for refused or missed medications
@@ -313,36 +337,49 @@ public class MedicationService {
         audit.setSubmittedByStaff(staff);
         audit.setStatus("PENDING");
 
-        // Check for discrepancies
-        boolean hasDiscrepancies = request.getCounts().stream()
-                .anyMatch(c -> !c.getCurrentCount().equals(c.getPreviousCount()));
-        audit.setHasDiscrepancies(hasDiscrepancies);
-
         MedicationAudit savedAudit = auditRepository.save(audit);
 
-        // Save audit counts
+        // Load the referenced residents and medications with one query each
+        Map<Long, ProgramResident> residentsById = new HashMap<>();
+        for (ProgramResident r : residentRepository.findAllById(request.getCounts().stream()
+                .map(MedicationAuditRequest.AuditCountItem::getResidentId).collect(Collectors.toSet()))) {
+            residentsById.put(r.getId(), r);
+        }
+        Map<Long, ResidentMedication> medicationsById = new HashMap<>();
+        for (ResidentMedication m : medicationRepository.findWithAddedByStaffByIdIn(request.getCounts().stream()
+                .map(MedicationAuditRequest.AuditCountItem::getResidentMedicationId).collect(Collectors.toSet()))) {
+            medicationsById.put(m.getId(), m);
+        }
+
+        // Save audit counts as one JDBC batch. The previous count is the stored stock, not the
+        // client's copy of it, since approval applies the variance to that stock.
+        List<MedicationAuditCount> counts = new ArrayList<>();
+        boolean hasDiscrepancies = false;
         for (MedicationAuditRequest.AuditCountItem countItem : request.getCounts()) {
-            ProgramResident resident = residentRepository.findById(countItem.getResidentId())
-                    .orElseThrow(() -> new RuntimeException("Resident not found"));
-            ResidentMedication medication = medicationRepository.findById(countItem.getResidentMedicationId())
-                    .orElseThrow(() -> new RuntimeException("Medication not found"));
+            ProgramResident resident = residentsById.get(countItem.getResidentId());
+            if (resident == null) throw new RuntimeException("Resident not found");
+            ResidentMedication medication = medicationsById.get(countItem.getResidentMedicationId());
+            if (medication == null) throw new RuntimeException("Medication not found");
 
             MedicationAuditCount count = new MedicationAuditCount();
             count.setAudit(savedAudit);
             count.setResident(resident);
             count.setResidentMedication(medication);
-            count.setPreviousCount(countItem.getPreviousCount());
+            int previousCount = medication.getCurrentCount();
+            count.setPreviousCount(previousCount);
             count.setCurrentCount(countItem.getCurrentCount());
-            count.setVariance(countItem.getCurrentCount() - countItem.getPreviousCount());
+            count.setVariance(countItem.getCurrentCount() - previousCount);
             count.setNotes(countItem.getNotes());
+            if (countItem.getCurrentCount() != previousCount) hasDiscrepancies = true;
 
             // Get previous staff name from medication
             String previousStaffName = medication.getAddedByStaff().getFirstName() + " " +
                     medication.getAddedByStaff().getLastName();
             count.setPreviousStaffName(previousStaffName);
-
-            auditCountRepository.save(count);
+            counts.add(count);
         }
+        auditCountRepository.saveAll(counts);
+        savedAudit.setHasDiscrepancies(hasDiscrepancies);
 
         // Send SSE notification for pending approval
         sseHub.broadcast(Map.of(
@@ -380,6 +417,11 @@ public class MedicationService {
      */
     @Transactional
     public MedicationAuditResponse approveAudit(Long auditId, MedicationAuditApprovalRequest request, Long staffId) {
+        // Claim the audit first: only one review may apply its variances to stock
+        if (auditRepository.claimForReview(auditId, request.getStatus()) == 0) {
+            if (!auditRepository.existsById(auditId)) throw new RuntimeException("Audit not found");
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Audit has already been reviewed");
+        }
         MedicationAudit audit = auditRepository.findById(auditId)
                 .orElseThrow(() -> new RuntimeException("Audit not found"));
         User staff = userRepository.findById(staffId)
@@ -394,9 +436,12 @@ public class MedicationService {
         if ("APPROVED".equals(request.getStatus())) {
             List<MedicationAuditCount> counts = auditCountRepository.findByAudit_Id(auditId);
             for (MedicationAuditCount count : counts) {
-                ResidentMedication medication = count.getResidentMedication();
-                medication.setCurrentCount(count.getCurrentCount());
-                medicationRepository.save(medication);
+                // Apply the counted variance rather than the counted value, so doses given
+                // between the count and its approval are not written back
+                int variance = count.getCurrentCount() - count.getPreviousCount();
+                if (variance != 0) {
+                    stockLedger.adjust(count.getResidentMedication(), variance);
+                }
             }
         }
 
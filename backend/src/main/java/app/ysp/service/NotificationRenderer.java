@@ -0,0 +1,88 @@
+package app.ysp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders notification email bodies.
+ *
+ * Templates are parsed once and kept in Thymeleaf's template cache (spring.thymeleaf.cache);
+ * callers render one body per event and share it across all recipients. The brand logo from
+ * app.brand.logoUrl is decoded once at startup so it can be attached inline without re-decoding
+ * on every send. Render time is reported per template as ysp.mail.render{template=...}.
+ */
+@Service
+public class NotificationRenderer {
+    public static final String LOGO_CID = "brandLogo";
+
+    private final TemplateEngine templateEngine;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+
+    @Value("${app.brand.logoUrl:}")
+    private String brandLogoUrl;
+
+    private ByteArrayResource inlineLogo;
+    private String inlineLogoMimeType;
+
+    public NotificationRenderer(TemplateEngine templateEngine, MeterRegistry meterRegistry) {
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void decodeBrandLogo() {
+        // Only data: URLs are embedded; anything else is referenced by URL from the template
+        if (brandLogoUrl == null || !brandLogoUrl.startsWith("data:")) return;
+        try {
+            int commaIdx = brandLogoUrl.indexOf(',');
+            String meta = brandLogoUrl.substring(5, commaIdx); // e.g. image/png;base64
+            byte[] bytes = Base64.getDecoder().decode(brandLogoUrl.substring(commaIdx + 1));
+            inlineLogoMimeType = meta.split(";")[0];
+            inlineLogo = new ByteArrayResource(bytes);
+        } catch (Exception e) {
+            System.err.println("[WARN] Could not decode app.brand.logoUrl, falling back to URL: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Render a template once; the result is meant to be shared by every recipient of the event
+     */
+    public String render(String template, Context context) {
+        Timer timer = renderTimers.computeIfAbsent(template, t -> Timer.builder("ysp.mail.render")
+                .description("Notification template render time")
+                .tag("template", t)
+                .register(meterRegistry));
+        return timer.record(() -> templateEngine.process(template, context));
+    }
+
+    /**
+     * Value for the templates' logoUrl variable: the inline CID when the logo is embedded,
+     * otherwise the configured URL (or null when none is configured)
+     */
+    public String logoUrl() {
+        if (inlineLogo != null) return "cid:" + LOGO_CID;
+        return brandLogoUrl != null && !brandLogoUrl.isBlank() ? brandLogoUrl : null;
+    }
+
+    /**
+     * Pre-decoded logo to attach inline under LOGO_CID, or null when the logo is referenced by URL
+     */
+    public ByteArrayResource inlineLogo() {
+        return inlineLogo;
+    }
+
+    public String inlineLogoMimeType() {
+        return inlineLogoMimeType;
+    }
+}
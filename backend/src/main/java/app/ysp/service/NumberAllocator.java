@@ -0,0 +1,189 @@
+package app.ysp.service;
+
+import app.ysp.repo.ProgramResidentRepository;
+import app.ysp.repository.InventoryRequisitionRepository;
+import app.ysp.repository.NumberCounterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out requisition numbers and resident ids from number_counter rows.
+ *
+ * Each node reserves a block of numbers with one UPDATE ... RETURNING in its own short
+ * transaction and serves the block from memory, so an allocation never scans existing rows and
+ * two requests can never receive the same number. Numbers of a block not used before a restart
+ * are skipped. A counter that does not exist yet starts after the highest number already stored.
+ *
+ * The reservation runs on a second pooled connection, so it is made without holding the block's
+ * monitor: callers waiting for a number would otherwise sit on their own connections meanwhile.
+ * Blocks reserved by concurrent callers are kept as spares and served next.
+ *
+ * Formats accept {year}, {program} and {seq:<java format>} (e.g. "REQ-{year}-{seq:%03d}").
+ */
+@Service
+public class NumberAllocator {
+    private static final Pattern SEQ = Pattern.compile("\\{seq(?::([^}]+))?}");
+    private static final String REQUISITION = "requisition";
+    private static final String RESIDENT = "resident";
+
+    private final NumberCounterRepository counters;
+    private final InventoryRequisitionRepository requisitions;
+    private final ProgramResidentRepository residents;
+    private final TransactionTemplate requiresNew;
+    private final Map<CounterKey, Block> blocks = new ConcurrentHashMap<>();
+
+    @Value("${app.numbers.requisition.format:REQ-{year}-{seq:%03d}}")
+    private String requisitionFormat;
+
+    @Value("${app.numbers.requisition.block-size:10}")
+    private int requisitionBlockSize;
+
+    @Value("${app.numbers.resident.format:{seq:%06d}}")
+    private String residentFormat;
+
+    @Value("${app.numbers.resident.block-size:1}")
+    private int residentBlockSize;
+
+    public NumberAllocator(NumberCounterRepository counters,
+                           InventoryRequisitionRepository requisitions,
+                           ProgramResidentRepository residents,
+                           PlatformTransactionManager transactionManager) {
+        this.counters = counters;
+        this.requisitions = requisitions;
+        this.residents = residents;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next requisition number of the current year. The counter is shared by all programs
+     * because requisition numbers are unique across the system.
+     */
+    public String nextRequisitionNumber(Long programId) {
+        int year = LocalDate.now().getYear();
+        long seq = next(REQUISITION, 0L, year, requisitionBlockSize,
+                () -> requisitions.findMaxRequisitionSequenceForYear(String.valueOf(year)));
+        return format(requisitionFormat, year, programId, seq);
+    }
+
+    /**
+     * Next resident id of a program, skipping ids that were entered by hand
+     */
+    public String nextResidentId(Long programId) {
+        while (true) {
+            long seq = next(RESIDENT, programId, 0, residentBlockSize, () -> {
+                Integer max = residents.findMaxNumericResidentForProgram(programId);
+                return max == null ? 0L : max;
+            });
+            String rid = format(residentFormat, LocalDate.now().getYear(), programId, seq);
+            if (!residents.existsByProgram_IdAndResidentId(programId, rid)) return rid;
+        }
+    }
+
+    /**
+     * The resident id the next allocation will most likely hand out, without reserving it.
+     * Another request may still take it first, so it is only a suggestion to show in a form.
+     */
+    public String peekResidentId(Long programId) {
+        long seq;
+        Block block = blocks.get(new CounterKey(RESIDENT, programId, 0));
+        Long buffered = null;
+        if (block != null) {
+            synchronized (block) {
+                buffered = block.peek();
+            }
+        }
+        if (buffered != null) {
+            seq = buffered;
+        } else {
+            Long last = counters.findLastValue(RESIDENT, programId, 0);
+            if (last == null) {
+                Integer max = residents.findMaxNumericResidentForProgram(programId);
+                last = max == null ? 0L : max;
+            }
+            seq = last + 1;
+        }
+        while (true) {
+            String rid = format(residentFormat, LocalDate.now().getYear(), programId, seq);
+            if (!residents.existsByProgram_IdAndResidentId(programId, rid)) return rid;
+            seq++;
+        }
+    }
+
+    private long next(String scope, long scopeId, int period, int blockSize, LongSupplier seed) {
+        int size = Math.max(1, blockSize);
+        Block block = blocks.computeIfAbsent(new CounterKey(scope, scopeId, period), k -> new Block());
+        while (true) {
+            synchronized (block) {
+                Long seq = block.take();
+                if (seq != null) return seq;
+            }
+            long last = reserve(scope, scopeId, period, size, seed);
+            synchronized (block) {
+                block.spares.addLast(new long[] { last - size + 1, last });
+            }
+        }
+    }
+
+    private long reserve(String scope, long scopeId, int period, int size, LongSupplier seed) {
+        Long last = requiresNew.execute(status -> {
+            Long advanced = counters.advance(scope, scopeId, period, size);
+            if (advanced != null) return advanced;
+            return counters.createOrAdvance(scope, scopeId, period, size, seed.getAsLong());
+        });
+        if (last == null) throw new IllegalStateException("Failed to reserve numbers for " + scope);
+        return last;
+    }
+
+    static String format(String pattern, int year, Long programId, long seq) {
+        String out = pattern
+                .replace("{year}", String.valueOf(year))
+                .replace("{program}", programId != null ? String.valueOf(programId) : "");
+        Matcher m = SEQ.matcher(out);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            String fmt = m.group(1) != null ? m.group(1) : "%d";
+            m.appendReplacement(sb, Matcher.quoteReplacement(String.format(fmt, seq)));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    private record CounterKey(String scope, long scopeId, int period) {}
+
+    /**
+     * Numbers reserved by this node and not handed out yet. Guarded by its own monitor.
+     */
+    private static final class Block {
+        long next = 1;
+        long last = 0;
+        final ArrayDeque<long[]> spares = new ArrayDeque<>();
+
+        Long take() {
+            if (next > last) {
+                long[] range = spares.pollFirst();
+                if (range == null) return null;
+                next = range[0];
+                last = range[1];
+            }
+            return next++;
+        }
+
+        Long peek() {
+            if (next <= last) return next;
+            long[] range = spares.peekFirst();
+            return range != null ? range[0] : null;
+        }
+    }
+}
@@ -208,9 +208,7 @@ public class OffsiteMovementService {
     public List<OffsiteMovementResponse> getScheduledMovements(Long programId) {
         List<OffsiteMovement> movements = movementRepository
                 .findByProgram_IdAndStatusOrderByMovementDateAscMovementTimeAsc(programId, "SCHEDULED");
-        return movements.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(movements);
     }
     
     /**
@@ -219,9 +217,7 @@ public class OffsiteMovementService {
     public List<OffsiteMovementResponse> getTodaysMovements(Long programId) {
         List<OffsiteMovement> movements = movementRepository
                 .findTodaysMovements(programId, LocalDate.now());
-        return movements.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(movements);
     }
     
     /**
@@ -231,9 +227,7 @@ public class OffsiteMovementService {
         List<OffsiteMovement> movements = movementRepository
                 .findByProgram_IdAndPriorityLevelInAndStatusOrderByMovementDateAscMovementTimeAsc(
                         programId, List.of("URGENT", "EMERGENCY"), "SCHEDULED");
-        return movements.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapToResponses(movements);
     }
     
     /**
@@ -246,9 +240,7 @@ public class OffsiteMovementService {
         Page<OffsiteMovement> movementPage = movementRepository
                 .filterMovements(programId, residentId, status, movementType, startDate, endDate, pageable);
         
-        List<OffsiteMovementResponse> movements = movementPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        List<OffsiteMovementResponse> movements = mapToResponses(movementPage.getContent());
         
         Map<String, Object> response = new HashMap<>();
         response.put("content", movements);
@@ -267,10 +259,27 @@ public class OffsiteMovementService {
         return mapToResponse(movement);
     }
     
+    /**
+     * Map a list of movements, loading all their staff assignments with one IN query
+     */
+    private List<OffsiteMovementResponse> mapToResponses(List<OffsiteMovement> movements) {
+        if (movements.isEmpty()) return List.of();
+        List<Long> ids = movements.stream().map(OffsiteMovement::getId).collect(Collectors.toList());
+        Map<Long, List<MovementStaffAssignment>> assignments = assignmentRepository.findByMovementIdsWithStaff(ids).stream()
+                .collect(Collectors.groupingBy(a -> a.getMovement().getId()));
+        return movements.stream()
+                .map(m -> mapToResponse(m, assignments.getOrDefault(m.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Map entity to response DTO
      */
     private OffsiteMovementResponse mapToResponse(OffsiteMovement movement) {
+        return mapToResponse(movement, assignmentRepository.findByMovement_Id(movement.getId()));
+    }
+    
+    private OffsiteMovementResponse mapToResponse(OffsiteMovement movement, List<MovementStaffAssignment> assignments) {
         OffsiteMovementResponse response = new OffsiteMovementResponse();
         response.setId(movement.getId());
         response.setProgramId(movement.getProgram().getId());
@@ -309,8 +318,7 @@ public class OffsiteMovementService {
             response.setCancelledByStaffName(movement.getCancelledByStaff().getFirstName() + " " + movement.getCancelledByStaff().getLastName());
         }
         
-        // Get staff assignments
-        List<MovementStaffAssignment> assignments = assignmentRepository.findByMovement_Id(movement.getId());
+        // Staff assignments
         List<OffsiteMovementResponse.StaffAssignmentResponse> staffResponses = assignments.stream()
                 .map(assignment -> {
                     OffsiteMovementResponse.StaffAssignmentResponse staffResponse = new OffsiteMovementResponse.StaffAssignmentResponse();
@@ -49,9 +49,7 @@ public class OneTimeLoginService {
 
     public boolean updatePasswordByToken(String rawToken, String newPassword) {
         String hash = sha256(rawToken);
-        Optional<OneTimeLogin> opt = otlRepo.findAll().stream()
-                .filter(t -> t.getTokenHash().equals(hash) && t.getUsedAt() == null && t.getExpiresAt().isAfter(Instant.now()))
-                .reduce((first, second) -> second);
+        Optional<OneTimeLogin> opt = otlRepo.findTopByTokenHashAndUsedAtIsNullAndExpiresAtAfterOrderByIdDesc(hash, Instant.now());
         if (opt.isEmpty()) return false;
         OneTimeLogin t = opt.get();
         User u = t.getUser();
@@ -28,15 +28,18 @@ public class PhoneLogService {
     private final ProgramRepository programRepository;
     private final ProgramResidentRepository residentRepository;
     private final UserRepository userRepository;
+    private final SseHub sseHub;
 
     public PhoneLogService(PhoneLogRepository phoneLogRepository,
                           ProgramRepository programRepository,
                           ProgramResidentRepository residentRepository,
-                          UserRepository userRepository) {
+                          UserRepository userRepository,
+                          SseHub sseHub) {
         this.phoneLogRepository = phoneLogRepository;
         this.programRepository = programRepository;
         this.residentRepository = residentRepository;
         this.userRepository = userRepository;
+        this.sseHub = sseHub;
     }
 
     // ============ PHONE LOG QUERIES ============
@@ -259,6 +262,7 @@ public class PhoneLogService {
         phoneLog.setLoggedByStaff(loggedByStaff);
 
         PhoneLog saved = phoneLogRepository.save(phoneLog);
+        try { sseHub.broadcast(Map.of("type", "phone_logs.created", "programId", programId, "id", saved.getId())); } catch (Exception ignored) {}
         return mapToPhoneLogResponse(saved);
     }
 
@@ -297,6 +301,7 @@ public class PhoneLogService {
         }
 
         PhoneLog saved = phoneLogRepository.save(phoneLog);
+        try { sseHub.broadcast(Map.of("type", "phone_logs.updated", "programId", saved.getProgram().getId(), "id", saved.getId())); } catch (Exception ignored) {}
         return mapToPhoneLogResponse(saved);
     }
 
@@ -305,10 +310,11 @@ public class PhoneLogService {
      */
     @Transactional
     public void deletePhoneLog(Long phoneLogId) {
-        if (!phoneLogRepository.existsById(phoneLogId)) {
-            throw new IllegalArgumentException("Phone log not found with id: " + phoneLogId);
-        }
-        phoneLogRepository.deleteById(phoneLogId);
+        PhoneLog phoneLog = phoneLogRepository.findById(phoneLogId)
+                .orElseThrow(() -> new IllegalArgumentException("Phone log not found with id: " + phoneLogId));
+        Long programId = phoneLog.getProgram().getId();
+        phoneLogRepository.delete(phoneLog);
+        try { sseHub.broadcast(Map.of("type", "phone_logs.deleted", "programId", programId, "id", phoneLogId)); } catch (Exception ignored) {}
     }
 
     // ============ VALIDATION ============
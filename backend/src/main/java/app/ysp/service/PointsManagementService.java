@@ -8,7 +8,6 @@ import app.ysp.entity.ProgramResident;
 import app.ysp.repo.ProgramRepository;
 import app.ysp.repo.ProgramResidentRepository;
 import app.ysp.repository.PointsDiaryCardRepository;
-import app.ysp.repository.PointsRedemptionRepository;
 import app.ysp.util.JsonUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +17,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,19 +25,19 @@ import java.util.stream.Collectors;
 public class PointsManagementService {
 
     private final PointsDiaryCardRepository diaryCardRepo;
-    private final PointsRedemptionRepository redemptionRepo;
     private final ProgramRepository programRepo;
     private final ProgramResidentRepository residentRepo;
+    private final SseHub sseHub;
 
     public PointsManagementService(
             PointsDiaryCardRepository diaryCardRepo,
-            PointsRedemptionRepository redemptionRepo,
             ProgramRepository programRepo,
-            ProgramResidentRepository residentRepo) {
+            ProgramResidentRepository residentRepo,
+            SseHub sseHub) {
         this.diaryCardRepo = diaryCardRepo;
-        this.redemptionRepo = redemptionRepo;
         this.programRepo = programRepo;
         this.residentRepo = residentRepo;
+        this.sseHub = sseHub;
     }
 
     public List<PointsDiaryCardResponse> getDiaryCardsByResident(Long residentId) {
@@ -74,20 +74,16 @@ public class PointsManagementService {
         newCard.setWeekStartDate(weekStart);
         newCard.setWeekEndDate(weekEnd);
         
-        // Get previous week's balance for starting points
-        // Find the most recent card before this week to handle transition from Mon-Sun to Sun-Sat weeks
-        List<PointsDiaryCard> previousCards = diaryCardRepo.findByResident_IdOrderByWeekStartDateDesc(residentId);
-        int startingPoints = 0;
-        for (PointsDiaryCard card : previousCards) {
-            if (card.getWeekStartDate().isBefore(weekStart)) {
-                startingPoints = card.getCurrentBalance();
-                break;
-            }
-        }
+        // Carry over the balance of the most recent earlier card (weeks moved from Mon-Sun to Sun-Sat)
+        int startingPoints = diaryCardRepo
+                .findFirstByResident_IdAndWeekStartDateBeforeOrderByWeekStartDateDesc(residentId, weekStart)
+                .map(PointsDiaryCard::getCurrentBalance)
+                .orElse(0);
         
         newCard.setStartingPoints(startingPoints);
         newCard.setCurrentBalance(startingPoints);
         newCard.setTotalPointsEarned(0);
+        newCard.setDayPoints(new int[DiaryCardScores.DAYS]);
         newCard.setStatus("active");
         newCard.setCreatedAt(Instant.now());
         newCard.setUpdatedAt(Instant.now());
@@ -116,7 +112,7 @@ public class PointsManagementService {
 
         // Check if diary card exists for this week
         Optional<PointsDiaryCard> existingCard = diaryCardRepo
-                .findByResident_IdAndWeekStartDate(request.getResidentId(), request.getWeekStartDate());
+                .findByResidentAndWeekForUpdate(request.getResidentId(), request.getWeekStartDate());
 
         PointsDiaryCard diaryCard;
         if (existingCard.isPresent()) {
@@ -129,151 +125,90 @@ public class PointsManagementService {
             diaryCard.setWeekEndDate(request.getWeekEndDate());
             
             // Get previous week's balance for starting points
-            LocalDate prevWeekStart = request.getWeekStartDate().minusWeeks(1);
-            Optional<PointsDiaryCard> prevCard = diaryCardRepo
-                    .findByResident_IdAndWeekStartDate(request.getResidentId(), prevWeekStart);
-            
-            int startingPoints = prevCard.map(PointsDiaryCard::getCurrentBalance).orElse(0);
+            int startingPoints = diaryCardRepo
+                    .findFirstByResident_IdAndWeekStartDateBeforeOrderByWeekStartDateDesc(
+                            request.getResidentId(), request.getWeekStartDate())
+                    .map(PointsDiaryCard::getCurrentBalance)
+                    .orElse(0);
             diaryCard.setStartingPoints(startingPoints);
+            diaryCard.setCurrentBalance(startingPoints);
             diaryCard.setCreatedAt(Instant.now());
         }
 
         // Update daily points and redemptions
-        diaryCard.setDailyPointsJson(request.getDailyPointsJson());
-        diaryCard.setDailyRedemptionsJson(request.getDailyRedemptionsJson());
+        diaryCard.setDailyPointsJson(JsonUtil.jsonOrNull(request.getDailyPointsJson()));
+        diaryCard.setDailyRedemptionsJson(JsonUtil.jsonOrNull(request.getDailyRedemptionsJson()));
         diaryCard.setUpdatedAt(Instant.now());
         
-        // Calculate total points earned from JSON
-        int totalEarned = calculateTotalPointsFromJson(request.getDailyPointsJson());
-        diaryCard.setTotalPointsEarned(totalEarned);
-        
-        // Calculate total redeemed from JSON if available, otherwise from repo
-        int totalRedeemed = 0;
-        if (request.getDailyRedemptionsJson() != null && !request.getDailyRedemptionsJson().isEmpty()) {
-            totalRedeemed = calculateTotalRedemptionsFromJson(request.getDailyRedemptionsJson());
-        } else {
-            totalRedeemed = redemptionRepo.getTotalPointsRedeemedByResidentInPeriod(
-                    request.getResidentId(),
-                    request.getWeekStartDate(),
-                    request.getWeekEndDate()
-            );
-        }
-        
-        int currentBalance = diaryCard.getStartingPoints() + totalEarned - totalRedeemed;
-        diaryCard.setCurrentBalance(currentBalance);
+        applyTotals(diaryCard,
+                DiaryCardScores.parse(request.getDailyPointsJson()).dayTotals(),
+                DiaryCardScores.parseRedemptions(request.getDailyRedemptionsJson()));
 
         PointsDiaryCard saved = diaryCardRepo.save(diaryCard);
+        broadcast("points.diary_updated", saved);
         return toResponse(saved);
     }
 
     @Transactional
     public PointsDiaryCardResponse updateDailyPoints(Long cardId, String dailyPointsJson) {
-        PointsDiaryCard diaryCard = diaryCardRepo.findById(cardId)
+        PointsDiaryCard diaryCard = diaryCardRepo.findByIdForUpdate(cardId)
                 .orElseThrow(() -> new IllegalArgumentException("Diary card not found"));
 
-        diaryCard.setDailyPointsJson(dailyPointsJson);
+        diaryCard.setDailyPointsJson(JsonUtil.jsonOrNull(dailyPointsJson));
         diaryCard.setUpdatedAt(Instant.now());
 
-        // Recalculate totals
-        int totalEarned = calculateTotalPointsFromJson(dailyPointsJson);
-        diaryCard.setTotalPointsEarned(totalEarned);
-
-        // Calculate redemptions from JSON if available
-        int totalRedeemed = 0;
-        if (diaryCard.getDailyRedemptionsJson() != null && !diaryCard.getDailyRedemptionsJson().isEmpty()) {
-            totalRedeemed = calculateTotalRedemptionsFromJson(diaryCard.getDailyRedemptionsJson());
-        } else {
-            totalRedeemed = redemptionRepo.getTotalPointsRedeemedByResidentInPeriod(
-                    diaryCard.getResident().getId(),
-                    diaryCard.getWeekStartDate(),
-                    diaryCard.getWeekEndDate()
-            );
-        }
-
-        int currentBalance = diaryCard.getStartingPoints() + totalEarned - totalRedeemed;
-        diaryCard.setCurrentBalance(currentBalance);
+        // Redemptions are unchanged, only the earned side moves
+        applyTotals(diaryCard, DiaryCardScores.parse(dailyPointsJson).dayTotals(), diaryCard.getDayRedemptions());
 
         PointsDiaryCard saved = diaryCardRepo.save(diaryCard);
+        broadcast("points.diary_updated", saved);
         return toResponse(saved);
     }
 
-    private int calculateTotalPointsFromJson(String dailyPointsJson) {
-        if (dailyPointsJson == null || dailyPointsJson.isEmpty()) {
-            return 0;
+    /**
+     * Record an approved redemption on its diary card. Cards that track redemptions per day
+     * already count it through their redemption JSON; others take it off the balance here.
+     */
+    @Transactional
+    public void recordApprovedRedemption(Long cardId, int pointsRedeemed) {
+        PointsDiaryCard card = diaryCardRepo.findByIdForUpdate(cardId).orElse(null);
+        if (card == null) return;
+        card.setApprovedPointsRedeemed(card.getApprovedPointsRedeemed() + pointsRedeemed);
+        if (card.getDayRedemptions() == null) {
+            card.setCurrentBalance(card.getCurrentBalance() - pointsRedeemed);
         }
+        card.setUpdatedAt(Instant.now());
+        diaryCardRepo.save(card);
+        broadcast("points.redemption_approved", card);
+    }
 
+    private void broadcast(String type, PointsDiaryCard card) {
+        if (card.getProgram() == null) return;
         try {
-            // Parse the diary points JSON
-            // Format: { "s1_rule": {"0": 2, "1": "R1", ...}, "s1_directive": {...}, ... }
-            var diaryPoints = JsonUtil.toMap(dailyPointsJson);
-            int total = 0;
-            
-            for (var behaviorEntry : diaryPoints.entrySet()) {
-                var dayValues = (java.util.Map<String, Object>) behaviorEntry.getValue();
-                
-                // Iterate through each day (0-6)
-                for (var dayEntry : dayValues.entrySet()) {
-                    Object value = dayEntry.getValue();
-                    
-                    if (value == null) {
-                        continue;
-                    }
-                    
-                    // If value is R, R1, R2, or R3, it counts as 0 points
-                    String strValue = value.toString();
-                    if (strValue.equals("R") || strValue.equals("R1") || 
-                        strValue.equals("R2") || strValue.equals("R3")) {
-                        continue; // 0 points
-                    }
-                    
-                    // Otherwise, parse as integer and add
-                    if (value instanceof Number) {
-                        total += ((Number) value).intValue();
-                    } else {
-                        try {
-                            total += Integer.parseInt(strValue);
-                        } catch (NumberFormatException e) {
-                            // Skip non-numeric values
-                        }
-                    }
-                }
-            }
-            
-            return total;
-        } catch (Exception e) {
-            System.err.println("Error calculating points from JSON: " + e.getMessage());
-            return 0;
-        }
+            sseHub.broadcast(Map.of("type", type, "programId", card.getProgram().getId(), "id", card.getId()));
+        } catch (Exception ignored) {}
     }
 
-    private int calculateTotalRedemptionsFromJson(String dailyRedemptionsJson) {
-        if (dailyRedemptionsJson == null || dailyRedemptionsJson.isEmpty()) {
-            return 0;
-        }
+    /**
+     * Replace a card's per-day totals and move its balance by the change in earned and redeemed
+     * points. The caller holds the card's row lock.
+     */
+    private void applyTotals(PointsDiaryCard card, int[] dayPoints, int[] dayRedemptions) {
+        int previousEarned = card.getTotalPointsEarned() != null ? card.getTotalPointsEarned() : 0;
+        int previousRedeemed = redeemed(card.getDayRedemptions(), card);
+        int earned = DiaryCardScores.sum(dayPoints);
+        int redeemed = redeemed(dayRedemptions, card);
+
+        card.setDayPoints(dayPoints);
+        card.setDayRedemptions(dayRedemptions);
+        card.setTotalPointsEarned(earned);
+        int balance = card.getCurrentBalance() != null ? card.getCurrentBalance() : card.getStartingPoints();
+        card.setCurrentBalance(balance + (earned - previousEarned) - (redeemed - previousRedeemed));
+    }
 
-        try {
-            // Parse: {"0": 10, "1": 5, ...}
-            var redemptions = JsonUtil.toMap(dailyRedemptionsJson);
-            int total = 0;
-            
-            for (var entry : redemptions.entrySet()) {
-                Object value = entry.getValue();
-                if (value instanceof Number) {
-                    total += ((Number) value).intValue();
-                } else {
-                    try {
-                        total += Integer.parseInt(value.toString());
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric values
-                    }
-                }
-            }
-            
-            return total;
-        } catch (Exception e) {
-            System.err.println("Error calculating redemptions from JSON: " + e.getMessage());
-            return 0;
-        }
+    // Redemptions counted against a card: its per-day entries, or the approved redemptions when it has none
+    private static int redeemed(int[] dayRedemptions, PointsDiaryCard card) {
+        return dayRedemptions != null ? DiaryCardScores.sum(dayRedemptions) : card.getApprovedPointsRedeemed();
     }
 
     private PointsDiaryCardResponse toResponse(PointsDiaryCard card) {
@@ -10,7 +10,6 @@ import app.ysp.domain.User;
 import app.ysp.repo.ProgramRepository;
 import app.ysp.repo.ProgramResidentRepository;
 import app.ysp.repo.UserRepository;
-import app.ysp.repository.PointsDiaryCardRepository;
 import app.ysp.repository.PointsRedemptionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,7 +25,6 @@ import java.util.stream.Collectors;
 public class PointsRedemptionService {
 
     private final PointsRedemptionRepository redemptionRepo;
-    private final PointsDiaryCardRepository diaryCardRepo;
     private final ProgramRepository programRepo;
     private final ProgramResidentRepository residentRepo;
     private final UserRepository userRepo;
@@ -34,13 +32,11 @@ public class PointsRedemptionService {
 
     public PointsRedemptionService(
             PointsRedemptionRepository redemptionRepo,
-            PointsDiaryCardRepository diaryCardRepo,
             ProgramRepository programRepo,
             ProgramResidentRepository residentRepo,
             UserRepository userRepo,
             PointsManagementService pointsService) {
         this.redemptionRepo = redemptionRepo;
-        this.diaryCardRepo = diaryCardRepo;
         this.programRepo = programRepo;
         this.residentRepo = residentRepo;
         this.userRepo = userRepo;
@@ -136,11 +132,7 @@ public class PointsRedemptionService {
 
         // Update diary card balance
         if (redemption.getDiaryCard() != null) {
-            PointsDiaryCard card = redemption.getDiaryCard();
-            int newBalance = card.getCurrentBalance() - redemption.getPointsRedeemed();
-            card.setCurrentBalance(newBalance);
-            card.setUpdatedAt(Instant.now());
-            diaryCardRepo.save(card);
+            pointsService.recordApprovedRedemption(redemption.getDiaryCard().getId(), redemption.getPointsRedeemed());
         }
 
         PointsRedemption saved = redemptionRepo.save(redemption);
@@ -0,0 +1,178 @@
+package app.ysp.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked search across a program's logbook, phone log, visitation, repair and inventory records.
+ *
+ * Each module matches its search_vector column (V56) against the query, plus a few short fields
+ * (resident and contact names, phone numbers, item names) by substring. Hits are ordered by
+ * rank, module and id and paged with a "<rank>_<module>_<id>" keyset cursor, so every page is
+ * a bounded read from the GIN indexes instead of a scan of the module tables.
+ */
+@Service
+public class ProgramSearchService {
+    public static final String LOGBOOK = "logbook";
+    public static final String PHONE = "phone";
+    public static final String VISITATION = "visitation";
+    public static final String REPAIR = "repair";
+    public static final String INVENTORY = "inventory";
+
+    // Both configurations, so stemmed narrative and unstemmed names/numbers match the same query
+    private static final String TSQUERY = "(websearch_to_tsquery('english', :q) || websearch_to_tsquery('simple', :q))";
+    private static final String RESIDENT_MATCH =
+            "t.resident_id IN (SELECT r.id FROM program_residents r WHERE r.program_id = :programId " +
+            "AND lower(concat_ws(' ', r.first_name, r.last_name)) LIKE :pattern)";
+
+    // Each module selects module, id, score, occurred_at, title and doc (the text snippets are cut from)
+    private static final Map<String, String> MODULES = new LinkedHashMap<>();
+    static {
+        MODULES.put(LOGBOOK,
+                "SELECT 'logbook' AS module, t.id AS id, " +
+                "CAST(ts_rank(t.search_vector, q.query) AS real) AS score, " +
+                "CAST(t.shift_date AS timestamptz) AS occurred_at, " +
+                "concat(t.shift_type, ' shift, ', t.shift_date) AS title, " +
+                "concat_ws(' ', t.incidents_events, t.shift_summary, t.resident_comments) AS doc " +
+                "FROM shift_logs t, (SELECT " + TSQUERY + " AS query) q " +
+                "WHERE t.program_id = :programId AND t.search_vector @@ q.query");
+        MODULES.put(PHONE,
+                "SELECT 'phone' AS module, t.id AS id, " +
+                "CAST(ts_rank(t.search_vector, q.query) + CASE WHEN t.search_vector @@ q.query THEN 0 ELSE 0.1 END AS real) AS score, " +
+                "t.call_date_time AS occurred_at, " +
+                "concat_ws(' ', t.call_type, 'call', t.contact_name) AS title, " +
+                "concat_ws(' ', t.additional_comments, t.termination_reason) AS doc " +
+                "FROM phone_logs t, (SELECT " + TSQUERY + " AS query) q " +
+                "WHERE t.program_id = :programId AND (t.search_vector @@ q.query " +
+                "OR lower(t.contact_name) LIKE :pattern OR lower(t.phone_number) LIKE :pattern OR " + RESIDENT_MATCH + ")");
+        MODULES.put(VISITATION,
+                "SELECT 'visitation' AS module, t.id AS id, " +
+                "CAST(ts_rank(t.search_vector, q.query) + CASE WHEN t.search_vector @@ q.query THEN 0 ELSE 0.1 END AS real) AS score, " +
+                "t.scheduled_start_time AS occurred_at, " +
+                "concat_ws(' ', t.visit_type, 'visit', t.visitation_room) AS title, " +
+                "concat_ws(' ', t.incident_details, t.visit_notes, t.special_instructions, t.denial_reason) AS doc " +
+                "FROM visitations t, (SELECT " + TSQUERY + " AS query) q " +
+                "WHERE t.program_id = :programId AND (t.search_vector @@ q.query " +
+                "OR lower(t.visitation_room) LIKE :pattern OR " + RESIDENT_MATCH + ")");
+        MODULES.put(REPAIR,
+                "SELECT 'repair' AS module, t.id AS id, " +
+                "CAST(ts_rank(t.search_vector, q.query) + CASE WHEN t.search_vector @@ q.query THEN 0 ELSE 0.1 END AS real) AS score, " +
+                "CAST(coalesce(t.infraction_date, CAST(t.created_at AS date)) AS timestamptz) AS occurred_at, " +
+                "concat_ws(' ', t.repair_level, 'repair', t.assigning_staff_name) AS title, " +
+                "concat_ws(' ', t.infraction_behavior, t.comments) AS doc " +
+                "FROM repair_interventions t, (SELECT " + TSQUERY + " AS query) q " +
+                "WHERE t.program_id = :programId AND (t.search_vector @@ q.query OR " + RESIDENT_MATCH + ")");
+        MODULES.put(INVENTORY,
+                "SELECT 'inventory' AS module, t.id AS id, " +
+                "CAST(ts_rank(t.search_vector, q.query) + CASE WHEN t.search_vector @@ q.query THEN 0 ELSE 0.1 END AS real) AS score, " +
+                "CAST(t.updated_at AS timestamptz) AS occurred_at, " +
+                "t.item_name AS title, " +
+                "concat_ws(' ', t.description, t.category, t.location) AS doc " +
+                "FROM inventory_items t, (SELECT " + TSQUERY + " AS query) q " +
+                "WHERE t.program_id = :programId AND (t.search_vector @@ q.query " +
+                "OR lower(t.item_name) LIKE :pattern OR lower(t.location) LIKE :pattern)");
+    }
+
+    private final EntityManager entityManager;
+
+    public ProgramSearchService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public static boolean isModule(String module) {
+        return MODULES.containsKey(module);
+    }
+
+    /**
+     * One page of hits, best first.
+     * @param modules modules to search, all when null or empty
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> search(Long programId, String text, Collection<String> modules, String cursor, int size) {
+        Cursor after = Cursor.parse(cursor);
+        List<String> selected = new ArrayList<>();
+        for (String module : MODULES.keySet()) {
+            if (modules == null || modules.isEmpty() || modules.contains(module)) selected.add(module);
+        }
+
+        // Every module contributes at most one page, already past the cursor, before the merge
+        StringBuilder union = new StringBuilder();
+        for (String module : selected) {
+            if (union.length() > 0) union.append(" UNION ALL ");
+            union.append("(SELECT * FROM (").append(MODULES.get(module)).append(") m");
+            if (after != null) union.append(" WHERE ").append(afterCondition(module, after));
+            union.append(" ORDER BY score DESC, id LIMIT :size)");
+        }
+        String sql = "SELECT p.module, p.id, p.score, p.occurred_at, p.title, " +
+                "ts_headline('english', p.doc, " + TSQUERY + ", 'MaxFragments=2, MaxWords=18, MinWords=6') AS snippet " +
+                "FROM (SELECT * FROM (" + union + ") hits ORDER BY score DESC, module, id LIMIT :size) p " +
+                "ORDER BY p.score DESC, p.module, p.id";
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("programId", programId)
+                .setParameter("q", text)
+                .setParameter("pattern", "%" + escapeLike(text.toLowerCase()) + "%")
+                .setParameter("size", size);
+        if (after != null) {
+            query.setParameter("afterScore", after.score());
+            query.setParameter("afterId", after.id());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<Map<String, Object>> content = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> hit = new LinkedHashMap<>();
+            hit.put("module", row[0]);
+            hit.put("id", ((Number) row[1]).longValue());
+            hit.put("score", ((Number) row[2]).floatValue());
+            hit.put("occurredAt", row[3] != null ? row[3].toString() : null);
+            hit.put("title", row[4]);
+            hit.put("snippet", row[5]);
+            content.add(hit);
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("content", content);
+        out.put("size", size);
+        if (content.size() == size) {
+            Map<String, Object> last = content.get(content.size() - 1);
+            out.put("nextCursor", last.get("score") + "_" + last.get("module") + "_" + last.get("id"));
+        }
+        return out;
+    }
+
+    // Rows after the cursor in (score DESC, module, id) order; module is constant within a branch
+    private static String afterCondition(String module, Cursor after) {
+        int cmp = module.compareTo(after.module());
+        if (cmp < 0) return "score < CAST(:afterScore AS real)";
+        if (cmp > 0) return "score <= CAST(:afterScore AS real)";
+        return "(score < CAST(:afterScore AS real) OR (score = CAST(:afterScore AS real) AND id > :afterId))";
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    record Cursor(float score, String module, long id) {
+        static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) return null;
+            String[] parts = cursor.split("_");
+            if (parts.length != 3 || !isModule(parts[1])) throw new IllegalArgumentException("Invalid cursor");
+            try {
+                return new Cursor(Float.parseFloat(parts[0]), parts[1], Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
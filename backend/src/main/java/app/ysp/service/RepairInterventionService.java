@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,16 +28,19 @@ public class RepairInterventionService {
     private final ProgramRepository programRepo;
     private final ProgramResidentRepository residentRepo;
     private final UserRepository userRepo;
+    private final SseHub sseHub;
 
     public RepairInterventionService(
             RepairInterventionRepository repairRepo,
             ProgramRepository programRepo,
             ProgramResidentRepository residentRepo,
-            UserRepository userRepo) {
+            UserRepository userRepo,
+            SseHub sseHub) {
         this.repairRepo = repairRepo;
         this.programRepo = programRepo;
         this.residentRepo = residentRepo;
         this.userRepo = userRepo;
+        this.sseHub = sseHub;
     }
 
     public List<RepairInterventionResponse> getAllRepairInterventions(Long programId) {
@@ -154,6 +158,7 @@ public class RepairInterventionService {
         repair.setUpdatedAt(Instant.now());
 
         RepairIntervention saved = repairRepo.save(repair);
+        broadcast("repairs.created", saved);
         return toResponse(saved);
     }
 
@@ -182,6 +187,7 @@ public class RepairInterventionService {
         }
 
         RepairIntervention saved = repairRepo.save(repair);
+        broadcast("repairs.reviewed", saved);
         return toResponse(saved);
     }
 
@@ -207,6 +213,7 @@ public class RepairInterventionService {
         repair.setUpdatedAt(java.time.Instant.now());
         
         RepairIntervention saved = repairRepo.save(repair);
+        broadcast("repairs.reviewed", saved);
         return toResponse(saved);
     }
 
@@ -235,6 +242,7 @@ public class RepairInterventionService {
         }
 
         RepairIntervention saved = repairRepo.save(repair);
+        broadcast("repairs.reviewed", saved);
         return toResponse(saved);
     }
 
@@ -279,6 +287,13 @@ public class RepairInterventionService {
         return response;
     }
 
+    private void broadcast(String type, RepairIntervention repair) {
+        if (repair.getProgram() == null) return;
+        try {
+            sseHub.broadcast(Map.of("type", type, "programId", repair.getProgram().getId(), "id", repair.getId()));
+        } catch (Exception ignored) {}
+    }
+
     public List<RepairInterventionResponse> getRepairsByResident(Long residentId) {
         return repairRepo.findByResident_IdOrderByInfractionDateDesc(residentId)
                 .stream()
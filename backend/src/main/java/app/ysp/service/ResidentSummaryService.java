@@ -0,0 +1,151 @@
+package app.ysp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-resident card stats (diary balance, active repairs, active watch days, active medications)
+ * for a whole program, computed by one query with a LATERAL join per source.
+ *
+ * Results are cached per program for the current day. Repair, watch, medication, points and
+ * resident events published through SseHub drop the program's entry, so the roster costs one
+ * query after a change instead of four per resident card.
+ */
+@Service
+public class ResidentSummaryService {
+    private static final String SUMMARY_SQL =
+            "SELECT r.id, COALESCE(dc.current_balance, 0), COALESCE(rp.active_repairs, 0), " +
+            "COALESCE(w.days_active, 0), COALESCE(m.active_medications, 0) " +
+            "FROM program_residents r " +
+            "LEFT JOIN LATERAL (SELECT current_balance FROM points_diary_cards " +
+            "WHERE resident_id = r.id ORDER BY week_start_date DESC LIMIT 1) dc ON true " +
+            "LEFT JOIN LATERAL (SELECT COUNT(*) AS active_repairs FROM repair_interventions " +
+            "WHERE resident_id = r.id AND status IN ('approved', 'pending_review') " +
+            "AND (repair_end_date IS NULL OR repair_end_date >= CURRENT_DATE)) rp ON true " +
+            "LEFT JOIN LATERAL (SELECT CURRENT_DATE - DATE(start_date_time) AS days_active FROM watch_assignments " +
+            "WHERE resident_id = r.id AND status = 'ACTIVE' ORDER BY start_date_time DESC LIMIT 1) w ON true " +
+            "LEFT JOIN LATERAL (SELECT COUNT(*) AS active_medications FROM resident_medications " +
+            "WHERE resident_id = r.id AND status = 'ACTIVE') m ON true " +
+            "WHERE r.program_id = :programId";
+
+    private final EntityManager entityManager;
+    private final SseHub sseHub;
+    private final Cache<Long, ProgramSummaries> cache;
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public ResidentSummaryService(EntityManager entityManager,
+                                  SseHub sseHub,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.residents.summary-cache.ttl-seconds:600}") long ttlSeconds,
+                                  @Value("${app.residents.summary-cache.max-size:1000}") long maxSize) {
+        this.entityManager = entityManager;
+        this.sseHub = sseHub;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "residents.summary");
+    }
+
+    @PostConstruct
+    void registerListener() {
+        sseHub.addListener(this::onEvent);
+    }
+
+    /**
+     * Stats of every resident of a program, keyed by resident pk
+     */
+    public Map<Long, Map<String, Object>> programSummaries(Long programId) {
+        LocalDate today = LocalDate.now();
+        ProgramSummaries cached = cache.getIfPresent(programId);
+        if (cached != null && cached.day.equals(today)) return cached.byResident;
+
+        long version = versions.getOrDefault(programId, 0L);
+        ProgramSummaries loaded = new ProgramSummaries(load(programId), today);
+        // Only cache when no change arrived while loading, otherwise the next read reloads
+        if (versions.getOrDefault(programId, 0L) == version) {
+            cache.put(programId, loaded);
+        }
+        return loaded.byResident;
+    }
+
+    /**
+     * Stats of one resident; zeros when the resident has no records
+     */
+    public Map<String, Object> residentSummary(Long programId, Long residentPk) {
+        Map<String, Object> stats = programSummaries(programId).get(residentPk);
+        return stats != null ? stats : toStats(0, 0, 0, 0);
+    }
+
+    public void invalidate(Long programId) {
+        versions.merge(programId, 1L, Long::sum);
+        cache.invalidate(programId);
+    }
+
+    private Map<Long, Map<String, Object>> load(Long programId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(SUMMARY_SQL)
+                .setParameter("programId", programId)
+                .getResultList();
+        Map<Long, Map<String, Object>> byResident = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            byResident.put(((Number) row[0]).longValue(), toStats(
+                    ((Number) row[1]).intValue(),
+                    ((Number) row[2]).intValue(),
+                    ((Number) row[3]).intValue(),
+                    ((Number) row[4]).intValue()));
+        }
+        return Map.copyOf(byResident);
+    }
+
+    private static Map<String, Object> toStats(int totalCredits, int activeRepairs, int sleepLogDays, int activeMedications) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalCredits", totalCredits);
+        stats.put("activeRepairs", activeRepairs);
+        stats.put("sleepLogDays", sleepLogDays);
+        stats.put("activeMedications", activeMedications);
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private void onEvent(String type, Long programId) {
+        if (type == null || programId == null || !affectsSummary(type)) return;
+        invalidate(programId);
+        // Events are published inside the writing transaction; drop anything read before it committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(programId);
+                }
+            });
+        }
+    }
+
+    static boolean affectsSummary(String type) {
+        return type.startsWith("repairs.")
+                || type.startsWith("watches.")
+                || type.startsWith("points.")
+                || type.startsWith("medication_")
+                || type.startsWith("programs.residents.");
+    }
+
+    private record ProgramSummaries(Map<Long, Map<String, Object>> byResident, LocalDate day) {}
+}
@@ -0,0 +1,221 @@
+package app.ysp.service;
+
+import app.ysp.util.JsonUtil;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A resident's phone calls, visits, watches, medication passes, repairs and diary cards as one
+ * newest-first timeline.
+ *
+ * Each source is read in small keyset pages on (occurred_at, id) and the sources are k-way
+ * merged, so the first entries are written after a handful of rows instead of after every
+ * record of the resident has been loaded. Entries are ordered by time, source and id, and the
+ * "<instant>_<source>_<id>" cursor of the last entry resumes the merge on the next request.
+ */
+@Service
+public class ResidentTimelineService {
+    private static final int FIRST_BATCH = 10;
+    private static final int MAX_BATCH = 200;
+
+    // Each source selects id, occurred_at, title, detail and status for :residentId
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+    static {
+        SOURCES.put("diary_card",
+                "SELECT t.id, CAST(t.week_start_date AS timestamptz) AS occurred_at, " +
+                "concat('Diary card, week of ', t.week_start_date) AS title, " +
+                "concat('Earned ', coalesce(t.total_points_earned, 0), ', balance ', coalesce(t.current_balance, 0)) AS detail, " +
+                "t.status AS status FROM points_diary_cards t WHERE t.resident_id = :residentId");
+        SOURCES.put("medication",
+                "SELECT t.id, CAST(t.administration_date + t.administration_time AS timestamptz) AS occurred_at, " +
+                "concat_ws(' ', m.medication_name, lower(t.action)) AS title, t.notes AS detail, t.action AS status " +
+                "FROM medication_administrations t JOIN resident_medications m ON m.id = t.resident_medication_id " +
+                "WHERE t.resident_id = :residentId");
+        SOURCES.put("phone_log",
+                "SELECT t.id, t.call_date_time AS occurred_at, " +
+                "concat_ws(' ', t.call_type, 'call', t.contact_name) AS title, t.additional_comments AS detail, " +
+                "t.behavior_during_call AS status FROM phone_logs t WHERE t.resident_id = :residentId");
+        SOURCES.put("repair",
+                "SELECT t.id, CAST(coalesce(t.infraction_date, CAST(t.created_at AS date)) AS timestamptz) AS occurred_at, " +
+                "concat_ws(' ', t.repair_level, 'repair') AS title, t.infraction_behavior AS detail, t.status AS status " +
+                "FROM repair_interventions t WHERE t.resident_id = :residentId");
+        SOURCES.put("visitation",
+                "SELECT t.id, t.scheduled_start_time AS occurred_at, concat_ws(' ', t.visit_type, 'visit') AS title, " +
+                "coalesce(t.visit_notes, t.special_instructions) AS detail, t.status AS status " +
+                "FROM visitations t WHERE t.resident_id = :residentId");
+        SOURCES.put("watch",
+                "SELECT t.id, t.start_date_time AS occurred_at, concat(t.watch_type, ' watch') AS title, " +
+                "t.clinical_reason AS detail, t.status AS status FROM watch_assignments t WHERE t.resident_id = :residentId");
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing(Entry::occurredAt, Comparator.reverseOrder())
+            .thenComparing(Entry::source)
+            .thenComparing(Entry::id, Comparator.reverseOrder());
+
+    private final EntityManager entityManager;
+
+    public ResidentTimelineService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public static boolean isSource(String source) {
+        return SOURCES.containsKey(source);
+    }
+
+    /**
+     * Write up to limit entries as NDJSON, one object per line, followed by a
+     * {"nextCursor": ...} line that is null once the timeline is exhausted.
+     * @param sources sources to include, all when null or empty
+     */
+    public void stream(Long residentId, Collection<String> sources, String cursor, int limit, OutputStream out) throws IOException {
+        Entry after = parseCursor(cursor);
+        PriorityQueue<SourceReader> heads = new PriorityQueue<>(Comparator.comparing(SourceReader::peek, ORDER));
+        for (String source : SOURCES.keySet()) {
+            if (sources != null && !sources.isEmpty() && !sources.contains(source)) continue;
+            SourceReader reader = new SourceReader(source, residentId, after);
+            if (reader.peek() != null) heads.add(reader);
+        }
+
+        Entry last = null;
+        int written = 0;
+        while (written < limit && !heads.isEmpty()) {
+            SourceReader reader = heads.poll();
+            last = reader.next();
+            out.write(line(last.toMap()));
+            written++;
+            if (written == FIRST_BATCH) out.flush();
+            if (reader.peek() != null) heads.add(reader);
+        }
+
+        Map<String, Object> end = new LinkedHashMap<>();
+        end.put("nextCursor", !heads.isEmpty() && last != null ? last.cursor() : null);
+        out.write(line(end));
+        out.flush();
+    }
+
+    private static byte[] line(Map<String, Object> value) {
+        return (JsonUtil.serialize(value) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the cursor is not one this service produced
+     */
+    public static void validateCursor(String cursor) {
+        parseCursor(cursor);
+    }
+
+    private static Entry parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        int first = cursor.indexOf('_');
+        int lastSep = cursor.lastIndexOf('_');
+        if (first <= 0 || lastSep <= first) throw new IllegalArgumentException("Invalid cursor");
+        String source = cursor.substring(first + 1, lastSep);
+        if (!isSource(source)) throw new IllegalArgumentException("Invalid cursor");
+        try {
+            return new Entry(source, Long.parseLong(cursor.substring(lastSep + 1)),
+                    Instant.parse(cursor.substring(0, first)), null, null, null);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant i) return i;
+        if (value instanceof OffsetDateTime o) return o.toInstant();
+        if (value instanceof Timestamp t) return t.toInstant();
+        throw new IllegalStateException("Unexpected timestamp type " + (value != null ? value.getClass() : null));
+    }
+
+    /**
+     * Newest-first reader over one source, fetching growing keyset pages on demand
+     */
+    private final class SourceReader {
+        private final String source;
+        private final Long residentId;
+        private final Deque<Entry> buffer = new ArrayDeque<>();
+        private Instant afterTime;
+        private long afterId;
+        private int batch = FIRST_BATCH;
+        private boolean exhausted;
+
+        SourceReader(String source, Long residentId, Entry cursor) {
+            this.source = source;
+            this.residentId = residentId;
+            if (cursor != null) {
+                // Same instant: later sources come after the cursor entirely, earlier ones not at all
+                int cmp = source.compareTo(cursor.source());
+                afterTime = cursor.occurredAt();
+                afterId = cmp == 0 ? cursor.id() : cmp > 0 ? Long.MAX_VALUE : 0L;
+            }
+        }
+
+        Entry peek() {
+            if (buffer.isEmpty() && !exhausted) fetch();
+            return buffer.peekFirst();
+        }
+
+        Entry next() {
+            Entry e = peek();
+            buffer.pollFirst();
+            return e;
+        }
+
+        private void fetch() {
+            String sql = "SELECT * FROM (" + SOURCES.get(source) + ") s" +
+                    (afterTime != null ? " WHERE (s.occurred_at, s.id) < (CAST(:afterTime AS timestamptz), :afterId)" : "") +
+                    " ORDER BY s.occurred_at DESC, s.id DESC LIMIT :batch";
+            var query = entityManager.createNativeQuery(sql)
+                    .setParameter("residentId", residentId)
+                    .setParameter("batch", batch);
+            if (afterTime != null) {
+                query.setParameter("afterTime", afterTime);
+                query.setParameter("afterId", afterId);
+            }
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = query.getResultList();
+            for (Object[] row : rows) {
+                Entry e = new Entry(source, ((Number) row[0]).longValue(), toInstant(row[1]),
+                        (String) row[2], (String) row[3], (String) row[4]);
+                buffer.addLast(e);
+                afterTime = e.occurredAt();
+                afterId = e.id();
+            }
+            exhausted = rows.size() < batch;
+            batch = Math.min(batch * 2, MAX_BATCH);
+        }
+    }
+
+    record Entry(String source, long id, Instant occurredAt, String title, String detail, String status) {
+        String cursor() {
+            return occurredAt + "_" + source + "_" + id;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("source", source);
+            m.put("id", id);
+            m.put("occurredAt", occurredAt.toString());
+            m.put("title", title);
+            m.put("detail", detail);
+            m.put("status", status);
+            return m;
+        }
+    }
+}
@@ -52,7 +52,8 @@ public class ShiftLogService {
     public Page<ShiftLogResponse> getShiftLogs(Long programId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("shiftDate").descending().and(Sort.by("createdAt").descending()));
         Page<ShiftLog> logs = shiftLogRepository.findByProgram_IdOrderByShiftDateDescCreatedAtDesc(programId, pageable);
-        return logs.map(this::convertToResponse);
+        Map<Long, List<ShiftLogAttachment>> attachments = attachmentsByLog(logs.getContent());
+        return logs.map(log -> convertToResponse(log, attachments.getOrDefault(log.getId(), List.of())));
     }
     
     /**
@@ -148,12 +149,17 @@ public class ShiftLogService {
         String shiftType,
         String status,
         LocalDate startDate,
-        LocalDate endDate
+        LocalDate endDate,
+        String staff
     ) {
         List<ShiftLog> logs;
         
         // Apply filters
-        if (query != null && !query.trim().isEmpty()) {
+        if (staff != null && !staff.trim().isEmpty()) {
+            // Containment match on the staff assignments document, served by its GIN index
+            String assignment = JsonUtil.serialize(List.of(Map.of("name", staff.trim())));
+            logs = shiftLogRepository.findByProgramAndStaffAssignment(programId, assignment);
+        } else if (query != null && !query.trim().isEmpty()) {
             logs = shiftLogRepository.searchByProgramAndText(programId, query);
         } else if (startDate != null && endDate != null) {
             logs = shiftLogRepository.findByProgram_IdAndShiftDateBetween(programId, startDate, endDate);
@@ -167,11 +173,23 @@ public class ShiftLogService {
             logs = shiftLogRepository.findByProgram_IdOrderByShiftDateDescCreatedAtDesc(programId, pageable).getContent();
         }
         
+        Map<Long, List<ShiftLogAttachment>> attachments = attachmentsByLog(logs);
         return logs.stream()
-            .map(this::convertToResponse)
+            .map(log -> convertToResponse(log, attachments.getOrDefault(log.getId(), List.of())))
             .collect(Collectors.toList());
     }
     
+    /**
+     * Validated JSON document from the request; invalid JSON is the client's error
+     */
+    private static String jsonField(String name, String json) {
+        try {
+            return JsonUtil.jsonOrNull(json);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " is not valid JSON");
+        }
+    }
+
     /**
      * Helper: Update log entity from request
      */
@@ -186,8 +204,8 @@ public class ShiftLogService {
         log.setOverallStatus(request.getOverallStatus());
         log.setFollowUpRequired(request.getFollowUpRequired());
         log.setShiftSummary(request.getShiftSummary());
-        log.setStaffAssignmentsJson(request.getStaffAssignmentsJson());
-        log.setEquipmentCountsJson(request.getEquipmentCountsJson());
+        log.setStaffAssignmentsJson(jsonField("staffAssignmentsJson", request.getStaffAssignmentsJson()));
+        log.setEquipmentCountsJson(jsonField("equipmentCountsJson", request.getEquipmentCountsJson()));
         log.setCertificationComplete(request.getCertificationComplete() != null ? request.getCertificationComplete() : false);
         log.setCertEquipmentVerified(request.getCertEquipmentVerified() != null ? request.getCertEquipmentVerified() : false);
         log.setCertShiftEventsAccurate(request.getCertShiftEventsAccurate() != null ? request.getCertShiftEventsAccurate() : false);
@@ -222,10 +240,24 @@ public class ShiftLogService {
         }
     }
     
+    /**
+     * Helper: Load attachments of many logs with one IN query, grouped by log ID
+     */
+    private Map<Long, List<ShiftLogAttachment>> attachmentsByLog(List<ShiftLog> logs) {
+        if (logs.isEmpty()) return Map.of();
+        List<Long> ids = logs.stream().map(ShiftLog::getId).collect(Collectors.toList());
+        return attachmentRepository.findByShiftLog_IdIn(ids).stream()
+            .collect(Collectors.groupingBy(a -> a.getShiftLog().getId()));
+    }
+    
     /**
      * Helper: Convert entity to response DTO
      */
     private ShiftLogResponse convertToResponse(ShiftLog log) {
+        return convertToResponse(log, attachmentRepository.findByShiftLog_Id(log.getId()));
+    }
+    
+    private ShiftLogResponse convertToResponse(ShiftLog log, List<ShiftLogAttachment> attachments) {
         ShiftLogResponse response = new ShiftLogResponse();
         response.setId(log.getId());
         response.setProgramId(log.getProgram().getId());
@@ -254,8 +286,6 @@ public class ShiftLogService {
         response.setStaffAssignments(parseStaffAssignments(log.getStaffAssignmentsJson()));
         response.setEquipmentCounts(parseEquipmentCounts(log.getEquipmentCountsJson()));
         
-        // Load attachments
-        List<ShiftLogAttachment> attachments = attachmentRepository.findByShiftLog_Id(log.getId());
         response.setAttachments(attachments.stream()
             .map(this::convertAttachmentToInfo)
             .collect(Collectors.toList()));
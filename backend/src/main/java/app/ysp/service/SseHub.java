@@ -1,33 +1,364 @@
 package app.ysp.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
+/**
+ * Topic-routed event bus for server-sent events.
+ *
+ * Subscribers declare the program IDs and event-type patterns they care about
+ * (e.g. "inventory.*", "visitations.created"). Published events are serialized once,
+ * routed by their "type" and "programId" fields, and handed to a bounded per-subscriber
+ * queue drained by a virtual thread, so a slow client never blocks the publishing request.
+ *
+ * Every event carries a monotonically increasing SSE id and is kept in a bounded ring
+ * buffer per program topic. A client reconnecting with Last-Event-ID is replayed only the
+ * events it missed; if some of them were already evicted it receives a single "resync" event.
+ */
 @Service
 public class SseHub {
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    public static final String RESYNC_TYPE = "resync";
 
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int replayCapacity;
+    private final AtomicLong subscriberSeq = new AtomicLong();
+
+    // Every live subscriber
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    // Subscribers that asked for specific programs, indexed by program ID
+    private final Map<Long, Set<Subscriber>> byProgram = new ConcurrentHashMap<>();
+    // Subscribers without a program filter (admin consoles, legacy clients)
+    private final Set<Subscriber> allPrograms = new CopyOnWriteArraySet<>();
+
+    // Event ids start at the boot time in millis so they keep increasing across restarts;
+    // anything at or below bootEventId predates this process and can no longer be replayed.
+    private final long bootEventId = System.currentTimeMillis();
+    private final Object replayLock = new Object();
+    private long eventSeq = bootEventId;
+    private final Map<Long, ReplayBuffer> replayByProgram = new ConcurrentHashMap<>();
+    private final ReplayBuffer globalReplay;
+
+    // In-process consumers of published events, called with (type, programId)
+    private final List<BiConsumer<String, Long>> listeners = new CopyOnWriteArrayList<>();
+
+    public SseHub(ObjectMapper objectMapper,
+                  @Value("${app.sse.queue-capacity:256}") int queueCapacity,
+                  @Value("${app.sse.replay-capacity:256}") int replayCapacity) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.replayCapacity = replayCapacity;
+        this.globalReplay = new ReplayBuffer(replayCapacity, bootEventId);
+    }
+
+    /**
+     * Subscribe to every event of every program
+     */
     public SseEmitter subscribe(long timeoutMs) {
+        return subscribe(timeoutMs, null, null, null);
+    }
+
+    /**
+     * Subscribe to events of the given programs whose type matches one of the patterns.
+     * Null or empty filters mean "everything". Events that carry no programId
+     * (users, roles, metrics) are delivered to every subscriber whose type filter matches.
+     * When lastEventId is given, missed events are replayed before live ones.
+     */
+    public SseEmitter subscribe(long timeoutMs, Collection<Long> programIds, Collection<String> typePatterns, Long lastEventId) {
         SseEmitter emitter = new SseEmitter(timeoutMs);
-        emitters.add(emitter);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((ex) -> emitters.remove(emitter));
+        Set<Long> programs = programIds == null ? Set.of() : programIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        List<String> patterns = typePatterns == null ? List.of() : typePatterns.stream()
+                .filter(p -> p != null && !p.isBlank())
+                .map(String::trim)
+                .toList();
+        Subscriber subscriber = new Subscriber(emitter, programs, patterns, new ArrayBlockingQueue<>(queueCapacity));
+
+        // Register before taking the replay snapshot so nothing published in between is lost;
+        // live duplicates of replayed events are skipped by id in drain().
+        subscribers.add(subscriber);
+        if (programs.isEmpty()) {
+            allPrograms.add(subscriber);
+        } else {
+            for (Long programId : programs) {
+                byProgram.computeIfAbsent(programId, k -> new CopyOnWriteArraySet<>()).add(subscriber);
+            }
+        }
+        if (lastEventId != null) {
+            prepareReplay(subscriber, lastEventId);
+        }
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError((ex) -> unsubscribe(subscriber));
+
+        subscriber.drainer = Thread.ofVirtual()
+                .name("sse-subscriber-" + subscriberSeq.incrementAndGet())
+                .start(() -> drain(subscriber));
+        if (!subscriber.active.get()) subscriber.drainer.interrupt();
         return emitter;
     }
 
+    /**
+     * Register an in-process listener called synchronously with the type and programId of every
+     * published event, on the publishing thread (usually inside the caller's transaction).
+     */
+    public void addListener(BiConsumer<String, Long> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Publish an event. Events are Maps carrying at least a "type" and usually a "programId".
+     * Returns immediately; delivery happens on the subscribers' drain threads.
+     */
     public void broadcast(Object event) {
-        for (SseEmitter emitter : emitters) {
+        String type = null;
+        Long programId = null;
+        if (event instanceof Map<?, ?> map) {
+            Object t = map.get("type");
+            type = t != null ? t.toString() : null;
+            programId = toLong(map.get("programId"));
+        }
+        for (BiConsumer<String, Long> listener : listeners) {
+            try {
+                listener.accept(type, programId);
+            } catch (Exception e) {
+                System.err.println("[WARN] SSE listener failed: " + e.getMessage());
+            }
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            System.err.println("[WARN] Failed to serialize SSE event: " + e.getMessage());
+            return;
+        }
+
+        // Ids are assigned and queued under one lock so every subscriber sees them in order;
+        // a client reconnecting from the last id it saw must not have skipped a lower one.
+        List<Subscriber> overflowed = new ArrayList<>();
+        synchronized (replayLock) {
+            Envelope envelope = new Envelope(++eventSeq, type, json);
+            ReplayBuffer buffer = programId == null ? globalReplay
+                    : replayByProgram.computeIfAbsent(programId, k -> new ReplayBuffer(replayCapacity, bootEventId));
+            buffer.append(envelope);
+
+            if (programId == null) {
+                for (Subscriber s : subscribers) deliver(s, envelope, overflowed);
+            } else {
+                Set<Subscriber> programSubscribers = byProgram.get(programId);
+                if (programSubscribers != null) {
+                    for (Subscriber s : programSubscribers) deliver(s, envelope, overflowed);
+                }
+                for (Subscriber s : allPrograms) deliver(s, envelope, overflowed);
+            }
+        }
+
+        for (Subscriber s : overflowed) {
+            // Queue full: the client is not keeping up, drop it and let it reconnect with Last-Event-ID
+            System.err.println("[WARN] SSE subscriber queue full, disconnecting slow client");
+            s.emitter.complete();
+            unsubscribe(s);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber s : subscribers) s.emitter.complete();
+    }
+
+    /**
+     * Snapshot the events this subscriber missed since lastEventId, or flag a resync when
+     * part of that range was already evicted (or published before this process started).
+     */
+    private void prepareReplay(Subscriber subscriber, long lastEventId) {
+        synchronized (replayLock) {
+            subscriber.replayedUpTo = eventSeq;
+            if (lastEventId > eventSeq) {
+                // Id from the future: the client talked to another clock, start over
+                subscriber.resync = true;
+                return;
+            }
+            if (lastEventId == eventSeq) return;
+
+            List<ReplayBuffer> buffers = new ArrayList<>();
+            buffers.add(globalReplay);
+            if (subscriber.programs.isEmpty()) {
+                buffers.addAll(replayByProgram.values());
+            } else {
+                for (Long programId : subscriber.programs) {
+                    ReplayBuffer buffer = replayByProgram.get(programId);
+                    // A program without a buffer has published nothing since boot
+                    buffers.add(buffer != null ? buffer : new ReplayBuffer(0, bootEventId));
+                }
+            }
+
+            List<Envelope> missed = new ArrayList<>();
+            for (ReplayBuffer buffer : buffers) {
+                if (buffer.evictedUpTo > lastEventId) {
+                    subscriber.resync = true;
+                    return;
+                }
+                for (Envelope e : buffer.events) {
+                    if (e.id() > lastEventId && subscriber.accepts(e.type())) missed.add(e);
+                }
+            }
+            missed.sort(Comparator.comparingLong(Envelope::id));
+            subscriber.replay = missed;
+        }
+    }
+
+    private void deliver(Subscriber subscriber, Envelope envelope, List<Subscriber> overflowed) {
+        if (!subscriber.accepts(envelope.type())) return;
+        if (!subscriber.queue.offer(envelope)) overflowed.add(subscriber);
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.resync) {
+                String json = objectMapper.writeValueAsString(Map.of("type", RESYNC_TYPE));
+                send(subscriber, new Envelope(subscriber.replayedUpTo, RESYNC_TYPE, json));
+            } else {
+                for (Envelope e : subscriber.replay) send(subscriber, e);
+            }
+            subscriber.replay = List.of();
+
+            while (subscriber.active.get()) {
+                Envelope envelope = subscriber.queue.take();
+                if (envelope.id() <= subscriber.replayedUpTo) continue;
+                send(subscriber, envelope);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.complete();
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Envelope envelope) throws IOException {
+        subscriber.emitter.send(SseEmitter.event()
+                .id(String.valueOf(envelope.id()))
+                .name("message")
+                .data(envelope.json()));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.active.compareAndSet(true, false)) return;
+        subscribers.remove(subscriber);
+        if (subscriber.programs.isEmpty()) {
+            allPrograms.remove(subscriber);
+        } else {
+            for (Long programId : subscriber.programs) {
+                // Empty buckets are kept: the key space is bounded by the number of programs
+                Set<Subscriber> programSubscribers = byProgram.get(programId);
+                if (programSubscribers != null) programSubscribers.remove(subscriber);
+            }
+        }
+        subscriber.queue.clear();
+        if (subscriber.drainer != null) subscriber.drainer.interrupt();
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number n) return n.longValue();
+        if (value instanceof String s && !s.isBlank()) {
             try {
-                emitter.send(SseEmitter.event().name("message").data(event));
-            } catch (IOException e) {
-                emitter.complete();
-                emitters.remove(emitter);
+                return Long.parseLong(s.trim());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private record Envelope(long id, String type, String json) {}
+
+    /**
+     * Bounded ring of the most recent events of one topic. Guarded by replayLock.
+     */
+    private static final class ReplayBuffer {
+        final int capacity;
+        final ArrayDeque<Envelope> events;
+        // Highest id no longer retained; replay from below it is impossible
+        long evictedUpTo;
+
+        ReplayBuffer(int capacity, long evictedUpTo) {
+            this.capacity = capacity;
+            this.events = new ArrayDeque<>(Math.max(capacity, 1));
+            this.evictedUpTo = evictedUpTo;
+        }
+
+        void append(Envelope envelope) {
+            if (capacity <= 0) {
+                evictedUpTo = envelope.id();
+                return;
+            }
+            if (events.size() >= capacity) {
+                evictedUpTo = events.pollFirst().id();
+            }
+            events.addLast(envelope);
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<Long> programs;
+        final List<String> patterns;
+        final BlockingQueue<Envelope> queue;
+        volatile Thread drainer;
+        final AtomicBoolean active = new AtomicBoolean(true);
+        // Replay state, written in subscribe() before the drainer starts
+        long replayedUpTo = Long.MIN_VALUE;
+        List<Envelope> replay = List.of();
+        boolean resync;
+
+        Subscriber(SseEmitter emitter, Set<Long> programs, List<String> patterns, BlockingQueue<Envelope> queue) {
+            this.emitter = emitter;
+            this.programs = programs;
+            this.patterns = patterns;
+            this.queue = queue;
+        }
+
+        /**
+         * "*" matches everything, a trailing "*" is a prefix match ("inventory.*"), otherwise exact.
+         */
+        boolean accepts(String type) {
+            if (patterns.isEmpty()) return true;
+            if (type == null) return false;
+            for (String p : patterns) {
+                if (p.equals("*")) return true;
+                if (p.endsWith("*")) {
+                    if (type.startsWith(p.substring(0, p.length() - 1))) return true;
+                } else if (p.equals(type)) {
+                    return true;
+                }
             }
+            return false;
         }
     }
 }
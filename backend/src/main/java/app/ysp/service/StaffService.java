@@ -37,13 +37,18 @@ public class StaffService {
             }
         }
         
+        // Load all users in one query
+        Map<Long, User> usersById = new HashMap<>();
+        for (User u : userRepository.findAllById(assignmentByUserId.keySet())) {
+            usersById.put(u.getId(), u);
+        }
+        
         List<StaffMemberResponse> result = new ArrayList<>();
         
         for (ProgramAssignment assignment : assignmentByUserId.values()) {
-            Optional<User> userOpt = userRepository.findById(assignment.getUserId());
-            if (userOpt.isEmpty()) continue;
+            User user = usersById.get(assignment.getUserId());
+            if (user == null) continue;
             
-            User user = userOpt.get();
             StaffMemberResponse staff = new StaffMemberResponse();
             
             // User data (authoritative source)
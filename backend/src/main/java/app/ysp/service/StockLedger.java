@@ -0,0 +1,123 @@
+package app.ysp.service;
+
+import app.ysp.entity.InventoryItem;
+import app.ysp.entity.ResidentMedication;
+import app.ysp.repository.InventoryItemRepository;
+import app.ysp.repository.ResidentMedicationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Concurrency-safe stock changes for inventory quantities and medication counts.
+ *
+ * Every change is a single conditional UPDATE evaluated by the database, so concurrent
+ * checkouts and administrations cannot overwrite each other. The updated row stays locked
+ * until the caller's transaction ends. The managed entity passed in is brought in line with
+ * the stored value, so the caller's later flush writes the same count back.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class StockLedger {
+    private final InventoryItemRepository items;
+    private final ResidentMedicationRepository medications;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter shortages;
+
+    @Value("${app.stock.max-attempts:5}")
+    private int maxAttempts;
+
+    public StockLedger(InventoryItemRepository items, ResidentMedicationRepository medications, MeterRegistry meterRegistry) {
+        this.items = items;
+        this.medications = medications;
+        this.conflicts = Counter.builder("ysp.stock.conflicts")
+                .description("Stock updates that found the count changed by a concurrent writer")
+                .register(meterRegistry);
+        this.retries = Counter.builder("ysp.stock.retries")
+                .description("Stock updates retried after a conflict")
+                .register(meterRegistry);
+        this.shortages = Counter.builder("ysp.stock.shortages")
+                .description("Withdrawals rejected because not enough stock was on hand")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Take quantity units of an item; fails without changing anything when fewer are on hand
+     * @return the new quantity
+     */
+    public int withdraw(InventoryItem item, Long programId, int quantity) {
+        Integer updated = items.withdrawStock(item.getId(), programId, quantity);
+        if (updated == null) {
+            shortages.increment();
+            throw new RuntimeException("Insufficient quantity available");
+        }
+        item.setCurrentQuantity(updated);
+        item.setStatus(stockStatus(updated, item.getMinimumQuantity()));
+        return updated;
+    }
+
+    /**
+     * Set an item's quantity to a counted value, retrying when a concurrent change lands in between
+     * @return the quantity it replaced
+     */
+    public int setQuantity(InventoryItem item, Long programId, int quantity) {
+        int expected = item.getCurrentQuantity();
+        for (int attempt = 1; ; attempt++) {
+            Integer updated = items.compareAndSetStock(item.getId(), programId, expected, quantity);
+            if (updated != null) {
+                item.setCurrentQuantity(updated);
+                item.setStatus(stockStatus(updated, item.getMinimumQuantity()));
+                return expected;
+            }
+            conflicts.increment();
+            Integer current = items.findCurrentQuantity(item.getId());
+            if (current == null) throw new RuntimeException("Item not found");
+            if (attempt >= maxAttempts) {
+                throw new RuntimeException("Inventory quantity is being changed by someone else, please retry");
+            }
+            retries.increment();
+            expected = current;
+        }
+    }
+
+    /**
+     * Take doses of a medication, never going below zero
+     * @return the new count
+     */
+    public int take(ResidentMedication medication, int quantity) {
+        Integer updated = medications.takeCount(medication.getId(), quantity);
+        if (updated == null) throw new RuntimeException("Medication not found");
+        medication.setCurrentCount(updated);
+        return updated;
+    }
+
+    /**
+     * Add delta (negative to remove) to a medication count
+     * @return the new count
+     */
+    public int adjust(ResidentMedication medication, int delta) {
+        Integer updated = medications.adjustCount(medication.getId(), delta);
+        if (updated == null) throw new RuntimeException("Medication not found");
+        medication.setCurrentCount(updated);
+        return updated;
+    }
+
+    /**
+     * Inventory status for a quantity; mirrored by the CASE in InventoryItemRepository's stock statements
+     */
+    public static String stockStatus(Integer currentQuantity, Integer minimumQuantity) {
+        if (currentQuantity == 0) {
+            return "OUT_OF_STOCK";
+        } else if (currentQuantity <= (minimumQuantity * 0.5)) {
+            return "CRITICAL";
+        } else if (currentQuantity < minimumQuantity) {
+            return "LOW";
+        } else {
+            return "GOOD";
+        }
+    }
+}
@@ -1,30 +1,66 @@
 package app.ysp.service;
 
+import app.ysp.entity.StorageImageVariant;
+import app.ysp.repository.StorageBlobRepository;
+import app.ysp.repository.StorageImageVariantRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
-import java.net.URI;
-
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class StorageService {
@@ -32,6 +68,25 @@ public class StorageService {
     @Autowired(required = false)
     private S3Client s3Client;
 
+    @Autowired(required = false)
+    private S3Presigner s3Presigner;
+
+    private final Cache<PresignKey, PresignedUrl> presignedUrls;
+    private final Timer presignTimer;
+
+    private static final long LOCAL_COPY_CHUNK = 1024 * 1024;
+    private static final String BLOB_PREFIX = "blobs/";
+    private static final String VARIANT_PREFIX = "variants/";
+    private final StorageBlobRepository blobs;
+    private final StorageImageVariantRepository variants;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean contentAddressed;
+    private final Counter dedupHits;
+    private final Semaphore uploadPermits;
+    private final long uploadAcquireTimeoutMs;
+    private final long partSize;
+    private final Timer uploadTimer;
+
     @Value("${s3.bucket-name:ysp-app}")
     private String bucketName;
 
@@ -41,17 +96,42 @@ public class StorageService {
     @Value("${s3.public-url:https://usc1.contabostorage.com/ysp-app}")
     private String s3PublicUrl;
 
-    @Value("${s3.endpoint:https://usc1.contabostorage.com}")
-    private String s3Endpoint;
-
-    @Value("${s3.region:us-east-1}")
-    private String s3Region;
-
-    @Value("${s3.access-key:}")
-    private String s3AccessKey;
-
-    @Value("${s3.secret-key:}")
-    private String s3SecretKey;
+    public StorageService(StorageBlobRepository blobs,
+                          StorageImageVariantRepository variants,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.storage.content-addressed:true}") boolean contentAddressed,
+                          @Value("${app.storage.presign-cache.max-size:10000}") long presignCacheSize,
+                          @Value("${app.storage.upload.max-concurrent:8}") int maxConcurrentUploads,
+                          @Value("${app.storage.upload.acquire-timeout-ms:30000}") long uploadAcquireTimeoutMs,
+                          @Value("${app.storage.upload.part-size-mb:8}") int partSizeMb) {
+        this.blobs = blobs;
+        this.variants = variants;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contentAddressed = contentAddressed;
+        this.dedupHits = Counter.builder("ysp.storage.dedup.hits")
+                .description("Uploads served by an already stored identical blob")
+                .register(meterRegistry);
+        this.presignedUrls = Caffeine.newBuilder()
+                .maximumSize(presignCacheSize)
+                .expireAfter(new PresignedUrlExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, presignedUrls, "storage.presigned-url");
+        this.presignTimer = Timer.builder("ysp.storage.presign")
+                .description("Time spent signing S3 GET URLs")
+                .register(meterRegistry);
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
+        this.uploadAcquireTimeoutMs = uploadAcquireTimeoutMs;
+        // S3 rejects multipart parts smaller than 5 MB (except the last)
+        this.partSize = Math.max(5, partSizeMb) * 1024L * 1024L;
+        this.uploadTimer = Timer.builder("ysp.storage.upload")
+                .description("Time spent streaming uploads to storage")
+                .register(meterRegistry);
+        Gauge.builder("ysp.storage.uploads.in-flight", uploadPermits, p -> maxConcurrentUploads - p.availablePermits())
+                .description("Uploads currently being streamed to storage")
+                .register(meterRegistry);
+    }
 
     /**
      * Upload a file to S3 or local storage
@@ -60,39 +140,169 @@ public class StorageService {
      * @return The URL to access the file
      */
     public String uploadFile(MultipartFile file, String folder) throws IOException {
+        return store(file, folder).url();
+    }
+
+    /**
+     * Stream a file to S3 or local storage without buffering it on the heap.
+     * The SHA-256 of the content is computed while it is copied. At most
+     * app.storage.upload.max-concurrent uploads run at once; others wait for a slot.
+     * In content-addressed mode the object is keyed by its hash and shared by identical uploads.
+     */
+    public StoredFile store(MultipartFile file, String folder) throws IOException {
         if (file.isEmpty()) {
             throw new IOException("Cannot upload empty file");
         }
 
-        // Generate unique filename
         String originalFilename = file.getOriginalFilename();
         String extension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            extension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+        }
+
+        acquireUploadSlot();
+        try {
+            Timer.Sample sample = Timer.start();
+            StoredFile stored = contentAddressed
+                    ? storeBlob(file, extension)
+                    : storeUnique(file, folder + "/" + UUID.randomUUID() + extension);
+            sample.stop(uploadTimer);
+            return stored;
+        } finally {
+            uploadPermits.release();
         }
-        String filename = UUID.randomUUID().toString() + extension;
-        String key = folder + "/" + filename;
+    }
 
+    /**
+     * Stream a file generated on this node (e.g. an export) to S3 or local storage under a unique key
+     */
+    public StoredFile storeFile(Path file, String folder, String extension, String contentType) throws IOException {
+        long size = Files.size(file);
+        String key = folder + "/" + UUID.randomUUID() + extension;
+        acquireUploadSlot();
+        try {
+            Timer.Sample sample = Timer.start();
+            MessageDigest digest = sha256();
+            String url;
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                url = write(in, size, contentType, key);
+            }
+            sample.stop(uploadTimer);
+            return new StoredFile(url, key, HexFormat.of().formatHex(digest.digest()), size);
+        } finally {
+            uploadPermits.release();
+        }
+    }
+
+    private StoredFile storeUnique(MultipartFile file, String key) throws IOException {
+        MessageDigest digest = sha256();
+        String url;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            url = write(in, file.getSize(), file.getContentType(), key);
+        }
+        return new StoredFile(url, key, HexFormat.of().formatHex(digest.digest()), file.getSize());
+    }
+
+    /**
+     * Hash first (the multipart part is already spooled to disk), then write only unknown content
+     */
+    private StoredFile storeBlob(MultipartFile file, String extension) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String key = BLOB_PREFIX + hash.substring(0, 2) + "/" + hash + extension;
+
+        // The reference is committed before the object is written, so no connection is held during
+        // the upload and releaseBlob cannot delete the object while this reference exists. Identical
+        // content writes the same bytes, so a writer racing the first one for a missing object is harmless.
+        Integer refs = transactionTemplate.execute(status -> {
+            blobs.insertOrAddReference(key, hash, file.getSize(), file.getContentType());
+            return blobs.findRefCount(key);
+        });
+        if (refs != null && refs > 1 && objectExists(key)) {
+            dedupHits.increment();
+            return new StoredFile(urlFor(key), key, hash, file.getSize());
+        }
+        try (InputStream in = file.getInputStream()) {
+            String url = write(in, file.getSize(), file.getContentType(), key);
+            return new StoredFile(url, key, hash, file.getSize());
+        } catch (IOException | RuntimeException e) {
+            try {
+                releaseBlob(key);
+            } catch (RuntimeException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+    }
+
+    private boolean objectExists(String key) {
+        if (s3Client == null) {
+            return Files.exists(Paths.get(localUploadPath, key));
+        }
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    private String write(InputStream in, long size, String contentType, String key) throws IOException {
         // Use S3 if configured, otherwise fallback to local storage
         if (s3Client != null) {
-            return uploadToS3(file, key);
-        } else {
-            return uploadLocally(file, key);
+            return uploadToS3(in, size, contentType, key);
         }
+        return uploadLocally(in, key);
+    }
+
+    private String urlFor(String key) {
+        return s3Client != null ? s3PublicUrl + "/" + key : "/uploads/" + key;
     }
 
     /**
-     * Upload to Contabo S3
+     * Result of a streamed upload
      */
-    private String uploadToS3(MultipartFile file, String key) throws IOException {
+    public record StoredFile(String url, String key, String sha256, long size) {}
+
+    private void acquireUploadSlot() throws IOException {
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType(file.getContentType())
-                    .build();
+            if (!uploadPermits.tryAcquire(uploadAcquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Too many uploads in progress, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted", e);
+        }
+    }
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Upload to Contabo S3, as a multipart upload when larger than one part
+     */
+    private String uploadToS3(InputStream in, long size, String contentType, String key) throws IOException {
+        try {
+            if (size > partSize) {
+                uploadMultipart(in, size, contentType, key);
+            } else {
+                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .build();
+
+                // Not markable: a reset would feed the same bytes through the digest twice
+                s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(new BoundedInputStream(in, size), size));
+            }
 
             // Return public URL
             return s3PublicUrl + "/" + key;
@@ -101,29 +311,132 @@ public class StorageService {
         }
     }
 
-    /**
-     * Upload to local filesystem (fallback)
-     */
-    private String uploadLocally(MultipartFile file, String key) throws IOException {
-        Path uploadDir = Paths.get(localUploadPath);
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
+    private void uploadMultipart(InputStream in, long size, String contentType, String key) {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            long remaining = size;
+            int partNumber = 1;
+            while (remaining > 0) {
+                long length = Math.min(partSize, remaining);
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength(length)
+                                .build(),
+                        RequestBody.fromInputStream(new BoundedInputStream(in, length), length));
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+                remaining -= length;
+                partNumber++;
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (RuntimeException e) {
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (Exception abortError) {
+                System.err.println("Failed to abort multipart upload " + key + ": " + abortError.getMessage());
+            }
+            throw e;
         }
+    }
 
-        Path filePath = uploadDir.resolve(key);
+    /**
+     * Upload to local filesystem (fallback), copying through a FileChannel
+     */
+    private String uploadLocally(InputStream in, String key) throws IOException {
+        Path filePath = Paths.get(localUploadPath).resolve(key);
         Path parentDir = filePath.getParent();
-        if (parentDir != null && !Files.exists(parentDir)) {
+        if (parentDir != null) {
             Files.createDirectories(parentDir);
         }
 
-        Files.write(filePath, file.getBytes());
+        // Write beside the target and move into place, so readers never see a partial file
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + "." + UUID.randomUUID() + ".part");
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(tempPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long copied;
+            while ((copied = target.transferFrom(source, position, LOCAL_COPY_CHUNK)) > 0) {
+                position += copied;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
 
         // Return relative URL for nginx to serve
         return "/uploads/" + key;
     }
 
     /**
-     * Delete a file from S3 or local storage
+     * Exposes at most a fixed number of bytes of the wrapped stream, leaving it open, for one multipart part
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // The caller owns the underlying stream
+        }
+    }
+
+    /**
+     * Delete a file from S3 or local storage. A content-addressed blob only loses one
+     * reference and is removed with its last one.
      */
     public void deleteFile(String fileUrl) {
         if (fileUrl == null || fileUrl.isEmpty()) {
@@ -131,19 +444,15 @@ public class StorageService {
         }
 
         try {
-            if (s3Client != null && fileUrl.startsWith(s3PublicUrl)) {
-                // Extract key from URL
-                String key = fileUrl.substring(s3PublicUrl.length() + 1);
-                DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                        .bucket(bucketName)
-                        .key(key)
-                        .build();
-                s3Client.deleteObject(deleteRequest);
-            } else if (fileUrl.startsWith("/uploads/")) {
-                // Delete from local storage
-                String key = fileUrl.substring("/uploads/".length());
-                Path filePath = Paths.get(localUploadPath, key);
-                Files.deleteIfExists(filePath);
+            String key = keyOf(fileUrl);
+            if (key == null) {
+                return;
+            }
+
+            if (key.startsWith(BLOB_PREFIX)) {
+                releaseBlob(key);
+            } else {
+                deleteObject(key);
             }
         } catch (Exception e) {
             System.err.println("Failed to delete file: " + fileUrl + " - " + e.getMessage());
@@ -151,63 +460,173 @@ public class StorageService {
     }
 
     /**
-     * Generate pre-signed URL for private file access
-     * URL expires after specified duration (default 1 hour)
+     * The row stays locked while the object is deleted, so a concurrent upload of the same
+     * content waits, records a fresh reference and writes the object again
      */
-    public String generatePresignedUrl(String fileUrl, Duration expiration) {
-        if (s3Client == null || fileUrl == null || !fileUrl.startsWith(s3PublicUrl)) {
-            return fileUrl; // Return as-is for local files or if S3 not configured
+    private void releaseBlob(String key) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (blobs.releaseReference(key) == 0) return;
+            Integer remaining = blobs.findRefCount(key);
+            if (remaining != null && remaining == 0) {
+                try {
+                    deleteObject(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                blobs.deleteUnreferenced(key);
+            }
+        });
+    }
+
+    /**
+     * Delete an object together with its image variants
+     */
+    private void deleteObject(String key) throws IOException {
+        List<StorageImageVariant> derived = variants.findByOriginalKeyOrderByWidthAsc(key);
+        for (StorageImageVariant v : derived) {
+            deleteSingleObject(v.getStorageKey());
+        }
+        if (!derived.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> variants.deleteByOriginalKey(key));
         }
+        deleteSingleObject(key);
+    }
 
-        if (s3AccessKey == null || s3AccessKey.isEmpty() || s3SecretKey == null || s3SecretKey.isEmpty()) {
-            return fileUrl; // Return as-is if credentials not available
+    private void deleteSingleObject(String key) throws IOException {
+        if (s3Client != null) {
+            DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+            s3Client.deleteObject(deleteRequest);
+            presignedUrls.asMap().keySet().removeIf(k -> k.objectKey().equals(key));
+        } else {
+            // Delete from local storage
+            Files.deleteIfExists(Paths.get(localUploadPath, key));
         }
+    }
 
-        try {
+    /**
+     * Object key of a stored file URL, null for URLs this service did not write
+     */
+    private String keyOf(String fileUrl) {
+        if (s3Client != null && fileUrl.startsWith(s3PublicUrl)) {
             // Extract key from URL
-            String key = fileUrl.substring(s3PublicUrl.length() + 1);
-            
-            // Create credentials
-            AwsBasicCredentials credentials = AwsBasicCredentials.create(s3AccessKey, s3SecretKey);
-            
-            // Create S3Configuration with path-style access for Contabo
-            S3Configuration s3Config = S3Configuration.builder()
-                .pathStyleAccessEnabled(true)
-                .build();
-            
-            // Create S3 Presigner with same configuration as S3Client
-            // Force path-style access for Contabo (bucket in path, not subdomain)
-            S3Presigner presigner = S3Presigner.builder()
-                .region(Region.of(s3Region))
-                .endpointOverride(URI.create(s3Endpoint))
-                .credentialsProvider(StaticCredentialsProvider.create(credentials))
-                .serviceConfiguration(s3Config)
-                .build();
+            return fileUrl.substring(s3PublicUrl.length() + 1);
+        }
+        if (fileUrl.startsWith("/uploads/")) {
+            return fileUrl.substring("/uploads/".length());
+        }
+        return null;
+    }
 
-            // Create presign request
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .build();
+    /**
+     * Store a downscaled JPEG rendition of an uploaded image next to its original
+     */
+    public String storeVariant(String originalKey, int width, byte[] jpeg) throws IOException {
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > originalKey.lastIndexOf('/') ? originalKey.substring(0, dot) : originalKey;
+        String key = VARIANT_PREFIX + base + "_w" + width + ".jpg";
+        String url = write(new ByteArrayInputStream(jpeg), jpeg.length, "image/jpeg", key);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                StorageImageVariant v = new StorageImageVariant();
+                v.setOriginalKey(originalKey);
+                v.setWidth(width);
+                v.setStorageKey(key);
+                v.setSizeBytes((long) jpeg.length);
+                variants.save(v);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Recorded by a concurrent upload of the same blob; it wrote the same key
+        }
+        return url;
+    }
 
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(expiration)
-                .getObjectRequest(getObjectRequest)
-                .build();
+    public boolean hasVariants(String originalKey) {
+        return variants.existsByOriginalKey(originalKey);
+    }
 
-            // Generate presigned URL
-            PresignedGetObjectRequest presignedRequest = presigner.presignGetObject(presignRequest);
-            
-            presigner.close();
-            
-            return presignedRequest.url().toString();
+    /**
+     * URL of the smallest stored variant at least minWidth wide (the largest variant when none is),
+     * or the original URL when the file has no variants
+     */
+    public String variantUrl(String fileUrl, int minWidth) {
+        if (fileUrl == null || fileUrl.isEmpty()) return fileUrl;
+        String key = keyOf(fileUrl);
+        if (key == null) return fileUrl;
+        List<StorageImageVariant> available = variants.findByOriginalKeyOrderByWidthAsc(key);
+        if (available.isEmpty()) return fileUrl;
+        StorageImageVariant chosen = available.get(available.size() - 1);
+        for (StorageImageVariant v : available) {
+            if (v.getWidth() >= minWidth) {
+                chosen = v;
+                break;
+            }
+        }
+        return urlFor(chosen.getStorageKey());
+    }
+
+    /**
+     * Generate pre-signed URL for private file access
+     * URL expires after specified duration (default 1 hour). Signed URLs are cached per
+     * (object key, expiration) and re-signed once less than a fifth of their lifetime remains.
+     */
+    public String generatePresignedUrl(String fileUrl, Duration expiration) {
+        if (s3Presigner == null || fileUrl == null || !fileUrl.startsWith(s3PublicUrl)) {
+            return fileUrl; // Return as-is for local files or if S3 not configured
+        }
+
+        try {
+            // Extract key from URL
+            String key = fileUrl.substring(s3PublicUrl.length() + 1);
+            PresignedUrl cached = presignedUrls.get(new PresignKey(key, expiration), this::presign);
+            return cached.url();
         } catch (Exception e) {
             System.err.println("Failed to generate presigned URL: " + e.getMessage());
-            e.printStackTrace();
             return fileUrl; // Fallback to original URL
         }
     }
 
+    private PresignedUrl presign(PresignKey k) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+            .bucket(bucketName)
+            .key(k.objectKey())
+            .build();
+
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+            .signatureDuration(k.expiration())
+            .getObjectRequest(getObjectRequest)
+            .build();
+
+        PresignedGetObjectRequest presignedRequest = presignTimer.record(() -> s3Presigner.presignGetObject(presignRequest));
+        return new PresignedUrl(presignedRequest.url().toString(), k.expiration());
+    }
+
+    private record PresignKey(String objectKey, Duration expiration) {}
+
+    private record PresignedUrl(String url, Duration expiration) {}
+
+    /**
+     * Keeps a signed URL for four fifths of its lifetime so callers always get at least a fifth left
+     */
+    private static final class PresignedUrlExpiry implements Expiry<PresignKey, PresignedUrl> {
+        @Override
+        public long expireAfterCreate(PresignKey key, PresignedUrl value, long currentTime) {
+            return value.expiration().multipliedBy(4).dividedBy(5).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(PresignKey key, PresignedUrl value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(PresignKey key, PresignedUrl value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
     /**
      * Generate pre-signed URL with default 1 hour expiration
      */
@@ -215,6 +634,15 @@ public class StorageService {
         return generatePresignedUrl(fileUrl, Duration.ofHours(1));
     }
 
+    /**
+     * Stored form of a file URL: strips the signature query of a presigned S3 URL handed back by a client
+     */
+    public String canonicalUrl(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith(s3PublicUrl)) return fileUrl;
+        int query = fileUrl.indexOf('?');
+        return query >= 0 ? fileUrl.substring(0, query) : fileUrl;
+    }
+
     /**
      * Check if S3 is configured
      */
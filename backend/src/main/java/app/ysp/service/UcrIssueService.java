@@ -0,0 +1,107 @@
+package app.ysp.service;
+
+import app.ysp.entity.ProgramUcrReport;
+import app.ysp.entity.UcrIssue;
+import app.ysp.repo.ProgramUcrReportRepository;
+import app.ysp.repo.UcrIssueRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Saves UCR reports together with their ucr_issue rows.
+ *
+ * Every Critical/High/Medium condition becomes one row carrying its severity and resolution,
+ * so dashboard stats, open issues and the monthly chart are indexed aggregates instead of
+ * substring scans over the fifteen *_condition columns of program_ucr_reports.
+ */
+@Service
+public class UcrIssueService {
+    private final ProgramUcrReportRepository ucrs;
+    private final UcrIssueRepository issues;
+
+    public UcrIssueService(ProgramUcrReportRepository ucrs, UcrIssueRepository issues) {
+        this.ucrs = ucrs;
+        this.issues = issues;
+    }
+
+    /**
+     * Persist a report and bring its issue rows in line with its conditions and resolvedIssues
+     */
+    @Transactional
+    public ProgramUcrReport save(ProgramUcrReport report) {
+        ProgramUcrReport saved = ucrs.save(report);
+        sync(saved);
+        return saved;
+    }
+
+    private void sync(ProgramUcrReport r) {
+        Set<String> resolvedFields = resolvedFields(r);
+        boolean reportResolved = Boolean.TRUE.equals(r.getResolved());
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, UcrIssue> existing = new HashMap<>();
+        for (UcrIssue i : issues.findByReportId(r.getId())) existing.put(i.getField(), i);
+
+        List<UcrIssue> toSave = new ArrayList<>();
+        for (Map.Entry<String, String> e : r.issueConditions().entrySet()) {
+            UcrIssue.Severity severity = UcrIssue.Severity.of(e.getValue());
+            UcrIssue issue = existing.remove(e.getKey());
+            if (severity == null) {
+                if (issue != null) issues.delete(issue);
+                continue;
+            }
+            if (issue == null) {
+                issue = new UcrIssue();
+                issue.setReportId(r.getId());
+                issue.setField(e.getKey());
+            }
+            issue.setProgramId(r.getProgram().getId());
+            issue.setReportDate(r.getReportDate());
+            issue.setSeverity(severity);
+            boolean resolved = reportResolved || resolvedFields.contains(e.getKey());
+            if (resolved && !Boolean.TRUE.equals(issue.getResolved())) issue.setResolvedAt(now);
+            if (!resolved) issue.setResolvedAt(null);
+            issue.setResolved(resolved);
+            toSave.add(issue);
+        }
+        // Rows for fields no longer tracked
+        issues.deleteAll(existing.values());
+        issues.saveAll(toSave);
+    }
+
+    /**
+     * UCR dashboard counters: total reports, unresolved issues, reports whose worst open issue is High,
+     * and reports filed this month
+     */
+    public Map<String, Object> getStats(Long programId) {
+        YearMonth now = YearMonth.now();
+        Map<String, Object> out = new HashMap<>();
+        out.put("total", ucrs.countByProgramId(programId));
+        out.put("critical", issues.countUnresolved(programId)); // Count ALL unresolved issues (Critical + High + Medium)
+        out.put("high", issues.countHighReports(programId));
+        out.put("monthCount", ucrs.countInRange(programId, now.atDay(1), now.atEndOfMonth()));
+        return out;
+    }
+
+    /**
+     * Field names listed in a report's comma-separated resolvedIssues
+     */
+    public static Set<String> resolvedFields(ProgramUcrReport r) {
+        Set<String> resolved = new HashSet<>();
+        String current = r.getResolvedIssues();
+        if (current != null && !current.isBlank()) {
+            resolved.addAll(Arrays.asList(current.split(",")));
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,78 @@
+package app.ysp.service;
+
+import app.ysp.repository.VisitationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marks SCHEDULED visitations whose end time has passed as COMPLETED.
+ *
+ * Expired visits are completed with one bulk UPDATE per batch of app.visitation.auto-complete.batch-size,
+ * each in its own transaction, and every affected program gets a single visitations.auto_completed
+ * event carrying the number of visits completed in that run.
+ */
+@Service
+public class VisitationAutoCompleter {
+    private final VisitationRepository visitationRepository;
+    private final SseHub sseHub;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter completed;
+
+    @Value("${app.visitation.auto-complete.batch-size:500}")
+    private int batchSize;
+
+    public VisitationAutoCompleter(VisitationRepository visitationRepository,
+                                   SseHub sseHub,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.visitationRepository = visitationRepository;
+        this.sseHub = sseHub;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completed = Counter.builder("ysp.visitations.auto_completed")
+                .description("Expired scheduled visitations marked completed by the scheduler")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.visitation.auto-complete.interval-ms:60000}", initialDelayString = "${app.visitation.auto-complete.initial-delay-ms:30000}")
+    public void completeExpired() {
+        Instant now = Instant.now();
+        Map<Long, Long> perProgram = new HashMap<>();
+        try {
+            while (true) {
+                List<Object[]> rows = transactionTemplate.execute(status -> visitationRepository.completeExpired(now, batchSize));
+                long batch = 0;
+                if (rows != null) {
+                    for (Object[] row : rows) {
+                        long count = ((Number) row[1]).longValue();
+                        perProgram.merge(((Number) row[0]).longValue(), count, Long::sum);
+                        batch += count;
+                    }
+                }
+                completed.increment(batch);
+                if (batch < batchSize) break;
+            }
+        } catch (Exception e) {
+            System.err.println("[WARN] Visitation auto-completion failed: " + e.getMessage());
+        }
+        // Batches already committed are announced even when a later one failed
+        for (Map.Entry<Long, Long> e : perProgram.entrySet()) {
+            try {
+                sseHub.broadcast(Map.of(
+                    "type", "visitations.auto_completed",
+                    "programId", e.getKey(),
+                    "count", e.getValue()
+                ));
+            } catch (Exception ignored) {}
+        }
+    }
+}
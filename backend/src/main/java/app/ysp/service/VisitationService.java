@@ -47,6 +47,7 @@ public class VisitationService {
     /**
      * Get today's visitations for a program
      */
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getTodaysVisitations(Long programId) {
         LocalDate today = LocalDate.now();
         List<Visitation> visitations = visitationRepository.findTodaysVisitationsByProgram(programId, today);
@@ -56,38 +57,12 @@ public class VisitationService {
     }
 
     /**
-     * Get upcoming visitations for a program
-     * Also auto-completes expired visits that weren't cancelled
+     * Get upcoming visitations for a program. Visits whose end time has passed are left out;
+     * VisitationAutoCompleter marks them completed.
      */
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getUpcomingVisitations(Long programId) {
-        LocalDate today = LocalDate.now();
-        Instant now = Instant.now();
-        List<Visitation> visitations = visitationRepository.findUpcomingVisitations(programId, today);
-        
-        // Auto-complete expired visits
-        for (Visitation v : visitations) {
-            if (v.getScheduledEndTime() != null && 
-                v.getScheduledEndTime().isBefore(now) && 
-                "SCHEDULED".equals(v.getStatus())) {
-                // Visit expired and wasn't cancelled - mark as completed
-                v.setStatus("COMPLETED");
-                if (v.getActualStartTime() == null) {
-                    v.setActualStartTime(v.getScheduledStartTime());
-                }
-                v.setActualEndTime(v.getScheduledEndTime());
-                visitationRepository.save(v);
-                try {
-                    sseHub.broadcast(Map.of(
-                        "type", "visitations.auto_completed",
-                        "programId", programId,
-                        "id", v.getId()
-                    ));
-                } catch (Exception ignored) {}
-            }
-        }
-        
-        // Fetch again to get updated list without expired visits
-        visitations = visitationRepository.findUpcomingVisitations(programId, today);
+        List<Visitation> visitations = visitationRepository.findUpcomingVisitations(programId, LocalDate.now(), Instant.now());
         return visitations.stream()
                 .map(this::mapToVisitationResponse)
                 .collect(Collectors.toList());
@@ -95,29 +70,13 @@ public class VisitationService {
 
     /**
      * Get all visitations for a program with pagination
-     * Also auto-completes expired visits that weren't cancelled
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> getAllVisitations(Long programId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<Visitation> visitationPage = visitationRepository
                 .findByProgram_IdOrderByScheduledDateDescScheduledStartTimeDesc(programId, pageable);
         
-        // Auto-complete expired visits
-        Instant now = Instant.now();
-        for (Visitation v : visitationPage.getContent()) {
-            if (v.getScheduledEndTime() != null && 
-                v.getScheduledEndTime().isBefore(now) && 
-                "SCHEDULED".equals(v.getStatus())) {
-                // Visit expired and wasn't cancelled - mark as completed
-                v.setStatus("COMPLETED");
-                if (v.getActualStartTime() == null) {
-                    v.setActualStartTime(v.getScheduledStartTime());
-                }
-                v.setActualEndTime(v.getScheduledEndTime());
-                visitationRepository.save(v);
-            }
-        }
-        
         List<Map<String, Object>> visitations = visitationPage.getContent().stream()
                 .map(this::mapToVisitationResponse)
                 .collect(Collectors.toList());
@@ -134,6 +93,7 @@ public class VisitationService {
     /**
      * Get visitation by ID
      */
+    @Transactional(readOnly = true)
     public Optional<Map<String, Object>> getVisitationById(Long id) {
         return visitationRepository.findById(id)
                 .map(this::mapToVisitationResponse);
@@ -142,6 +102,7 @@ public class VisitationService {
     /**
      * Get visitations for a resident
      */
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getResidentVisitations(Long residentId) {
         List<Visitation> visitations = visitationRepository.findByResident_IdOrderByScheduledDateDesc(residentId);
         return visitations.stream()
@@ -152,6 +113,7 @@ public class VisitationService {
     /**
      * Get pending approval visitations
      */
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getPendingApprovals(Long programId) {
         List<Visitation> visitations = visitationRepository.findPendingApprovalByProgram(programId);
         return visitations.stream()
@@ -162,6 +124,7 @@ public class VisitationService {
     /**
      * Get visitations with incidents
      */
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> getVisitationsWithIncidents(Long programId) {
         List<Visitation> visitations = visitationRepository.findVisitationsWithIncidents(programId);
         return visitations.stream()
@@ -172,6 +135,7 @@ public class VisitationService {
     /**
      * Search visitations
      */
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> searchVisitations(Long programId, String search) {
         List<Visitation> visitations = visitationRepository.searchVisitations(programId, search);
         return visitations.stream()
@@ -181,8 +145,8 @@ public class VisitationService {
 
     /**
      * Filter visitations with complex criteria
-     * Also auto-completes expired visits that weren't cancelled
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> filterVisitations(Long programId, Long residentId, String visitType,
                                                   String status, String approvalStatus,
                                                   LocalDate startDate, LocalDate endDate,
@@ -191,22 +155,6 @@ public class VisitationService {
         Page<Visitation> visitationPage = visitationRepository.filterVisitations(
                 programId, residentId, visitType, status, approvalStatus, startDate, endDate, pageable);
         
-        // Auto-complete expired visits
-        Instant now = Instant.now();
-        for (Visitation v : visitationPage.getContent()) {
-            if (v.getScheduledEndTime() != null && 
-                v.getScheduledEndTime().isBefore(now) && 
-                "SCHEDULED".equals(v.getStatus())) {
-                // Visit expired and wasn't cancelled - mark as completed
-                v.setStatus("COMPLETED");
-                if (v.getActualStartTime() == null) {
-                    v.setActualStartTime(v.getScheduledStartTime());
-                }
-                v.setActualEndTime(v.getScheduledEndTime());
-                visitationRepository.save(v);
-            }
-        }
-        
         List<Map<String, Object>> visitations = visitationPage.getContent().stream()
                 .map(this::mapToVisitationResponse)
                 .collect(Collectors.toList());
@@ -223,6 +171,7 @@ public class VisitationService {
     /**
      * Get statistics for a program
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> getVisitationStatistics(Long programId) {
         Map<String, Object> stats = new HashMap<>();
         
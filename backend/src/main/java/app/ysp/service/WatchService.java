@@ -26,17 +26,20 @@ public class WatchService {
     private final ProgramRepository programRepository;
     private final ProgramResidentRepository residentRepository;
     private final UserRepository userRepository;
+    private final SseHub sseHub;
 
     public WatchService(WatchAssignmentRepository watchAssignmentRepository,
                        WatchLogEntryRepository watchLogEntryRepository,
                        ProgramRepository programRepository,
                        ProgramResidentRepository residentRepository,
-                       UserRepository userRepository) {
+                       UserRepository userRepository,
+                       SseHub sseHub) {
         this.watchAssignmentRepository = watchAssignmentRepository;
         this.watchLogEntryRepository = watchLogEntryRepository;
         this.programRepository = programRepository;
         this.residentRepository = residentRepository;
         this.userRepository = userRepository;
+        this.sseHub = sseHub;
     }
 
     // ============ WATCH ASSIGNMENTS ============
@@ -46,9 +49,7 @@ public class WatchService {
      */
     public List<WatchAssignmentResponse> getActiveWatches(Long programId) {
         List<WatchAssignment> watches = watchAssignmentRepository.findActiveWatchesByProgramId(programId);
-        return watches.stream()
-                .map(this::mapToWatchResponse)
-                .collect(Collectors.toList());
+        return mapToWatchResponses(watches);
     }
 
     /**
@@ -56,9 +57,7 @@ public class WatchService {
      */
     public List<WatchAssignmentResponse> getAllWatches(Long programId) {
         List<WatchAssignment> watches = watchAssignmentRepository.findByProgramIdOrderByStartDateDesc(programId);
-        return watches.stream()
-                .map(this::mapToWatchResponse)
-                .collect(Collectors.toList());
+        return mapToWatchResponses(watches);
     }
 
     /**
@@ -66,10 +65,9 @@ public class WatchService {
      */
     public List<WatchAssignmentResponse> getArchivedWatches(Long programId) {
         List<WatchAssignment> watches = watchAssignmentRepository.findByProgramIdOrderByStartDateDesc(programId);
-        return watches.stream()
+        return mapToWatchResponses(watches.stream()
                 .filter(w -> !"ACTIVE".equals(w.getStatus()))
-                .map(this::mapToWatchResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -93,9 +91,7 @@ public class WatchService {
      */
     public List<WatchAssignmentResponse> getResidentWatchHistory(Long residentId) {
         List<WatchAssignment> watches = watchAssignmentRepository.findByResidentIdOrderByStartDateDesc(residentId);
-        return watches.stream()
-                .map(this::mapToWatchResponse)
-                .collect(Collectors.toList());
+        return mapToWatchResponses(watches);
     }
 
     /**
@@ -167,6 +163,7 @@ public class WatchService {
         watch.setStatus("ACTIVE");
 
         WatchAssignment saved = watchAssignmentRepository.save(watch);
+        try { sseHub.broadcast(Map.of("type", "watches.created", "programId", programId, "id", saved.getId())); } catch (Exception ignored) {}
         return mapToWatchResponse(saved);
     }
 
@@ -192,6 +189,7 @@ public class WatchService {
         watch.setEndedByStaff(staff);
 
         WatchAssignment saved = watchAssignmentRepository.save(watch);
+        try { sseHub.broadcast(Map.of("type", "watches.ended", "programId", saved.getProgram().getId(), "id", saved.getId())); } catch (Exception ignored) {}
         return mapToWatchResponse(saved);
     }
 
@@ -288,7 +286,26 @@ public class WatchService {
 
     // ============ MAPPING ============
 
+    /**
+     * Map a list of watches with one grouped count query for their log entries
+     */
+    private List<WatchAssignmentResponse> mapToWatchResponses(List<WatchAssignment> watches) {
+        if (watches.isEmpty()) return List.of();
+        Map<Long, Long> entryCounts = new HashMap<>();
+        List<Long> ids = watches.stream().map(WatchAssignment::getId).collect(Collectors.toList());
+        for (Object[] row : watchLogEntryRepository.countByWatchAssignmentIds(ids)) {
+            entryCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return watches.stream()
+                .map(w -> mapToWatchResponse(w, entryCounts.getOrDefault(w.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
     private WatchAssignmentResponse mapToWatchResponse(WatchAssignment watch) {
+        return mapToWatchResponse(watch, watchLogEntryRepository.countByWatchAssignmentId(watch.getId()));
+    }
+
+    private WatchAssignmentResponse mapToWatchResponse(WatchAssignment watch, long entryCount) {
         WatchAssignmentResponse response = new WatchAssignmentResponse();
         response.setId(watch.getId());
         response.setResidentId(watch.getResident().getId());
@@ -319,8 +336,6 @@ public class WatchService {
         response.setCreatedAt(watch.getCreatedAt());
         response.setUpdatedAt(watch.getUpdatedAt());
         
-        // Compute total log entries
-        long entryCount = watchLogEntryRepository.countByWatchAssignmentId(watch.getId());
         response.setTotalLogEntries(entryCount);
         
         // Compute duration
@@ -10,7 +10,7 @@ import java.util.Map;
 
 /**
  * Utility class for JSON serialization and deserialization.
- * Use this for storing/retrieving JSON data in TEXT database columns.
+ * Use this for storing/retrieving JSON data in JSONB database columns.
  * 
  * Usage:
  * - Saving: String json = JsonUtil.serialize(myObject);
@@ -125,4 +125,20 @@ public class JsonUtil {
             return false;
         }
     }
+
+    /**
+     * Validate a client-supplied JSON string before it is written to a JSONB column
+     * @param json The JSON string
+     * @return the json unchanged, or null if it is null or blank
+     * @throws IllegalArgumentException if json is not valid JSON
+     */
+    public static String jsonOrNull(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        if (!isValidJson(json)) {
+            throw new IllegalArgumentException("Invalid JSON document");
+        }
+        return json;
+    }
 }
@@ -0,0 +1,50 @@
+package app.ysp.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Row-at-a-time writer for exported tables. Implementations only buffer the current row,
+ * so memory stays constant however many rows are written.
+ */
+public interface TabularWriter {
+
+    void header(List<String> columns) throws IOException;
+
+    void row(Object[] values) throws IOException;
+
+    /**
+     * Write any trailing structure and flush. Does not close the underlying stream.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Writer for a format key ("csv" or "xlsx")
+     * @throws IllegalArgumentException for any other format
+     */
+    static TabularWriter forFormat(String format, OutputStream out) {
+        return switch (format) {
+            case "csv" -> new CsvWriter(out);
+            case "xlsx" -> new XlsxWriter(out);
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+    }
+
+    static String contentType(String format) {
+        return "xlsx".equals(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv; charset=UTF-8";
+    }
+
+    /**
+     * Text form of a cell value; dates and times in ISO-8601
+     */
+    static String text(Object value) {
+        if (value == null) return "";
+        if (value instanceof java.sql.Timestamp t) return t.toLocalDateTime().toString();
+        if (value instanceof java.sql.Date d) return d.toLocalDate().toString();
+        if (value instanceof java.sql.Time t) return t.toLocalTime().toString();
+        return value.toString();
+    }
+}
@@ -0,0 +1,17 @@
+-- Persisted outbox for notification emails, drained by MailOutboxService
+CREATE TABLE mail_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(320) NOT NULL,
+    subject VARCHAR(998) NOT NULL,
+    html_body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMPTZ
+);
+
+-- Dispatcher polls due messages in id order
+CREATE INDEX idx_mail_outbox_due ON mail_outbox(next_attempt_at, id) WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX idx_mail_outbox_sent_at ON mail_outbox(sent_at) WHERE status = 'SENT';
@@ -0,0 +1,46 @@
+-- One row per Critical/High/Medium condition on a UCR report, maintained by UcrIssueService
+CREATE TABLE ucr_issue (
+    id BIGSERIAL PRIMARY KEY,
+    report_id BIGINT NOT NULL REFERENCES program_ucr_reports(id) ON DELETE CASCADE,
+    program_id BIGINT NOT NULL REFERENCES programs(id) ON DELETE CASCADE,
+    report_date DATE NOT NULL,
+    field VARCHAR(64) NOT NULL,
+    severity VARCHAR(10) NOT NULL CHECK (severity IN ('CRITICAL', 'HIGH', 'MEDIUM')),
+    resolved BOOLEAN NOT NULL DEFAULT FALSE,
+    resolved_at TIMESTAMP,
+    CONSTRAINT uq_ucr_issue_report_field UNIQUE (report_id, field)
+);
+
+-- Dashboard stats and open issues only look at unresolved rows
+CREATE INDEX idx_ucr_issue_open ON ucr_issue(program_id, severity, report_id) WHERE resolved = FALSE;
+-- Monthly chart aggregates by program and report date
+CREATE INDEX idx_ucr_issue_program_date ON ucr_issue(program_id, report_date);
+
+-- Backfill from existing reports (same severity precedence as ProgramUcrReport.getComputedSeverity)
+INSERT INTO ucr_issue (report_id, program_id, report_date, field, severity, resolved, resolved_at)
+SELECT r.id, r.program_id, r.report_date, c.field,
+       CASE WHEN LOWER(c.cond) LIKE '%critical%' THEN 'CRITICAL'
+            WHEN LOWER(c.cond) LIKE '%high%' THEN 'HIGH'
+            ELSE 'MEDIUM' END,
+       COALESCE(r.resolved, FALSE) OR c.field = ANY(string_to_array(COALESCE(r.resolved_issues, ''), ',')),
+       CASE WHEN COALESCE(r.resolved, FALSE) OR c.field = ANY(string_to_array(COALESCE(r.resolved_issues, ''), ','))
+            THEN COALESCE(r.resolved_at, r.updated_at) END
+FROM program_ucr_reports r
+CROSS JOIN LATERAL (VALUES
+    ('securityRadios', r.security_radios_condition),
+    ('securityFlashlights', r.security_flashlights_condition),
+    ('securityMetalDetector', r.security_metal_detector_condition),
+    ('securityBigSetKeys', r.security_big_set_keys_condition),
+    ('securityFirstAidKits', r.security_first_aid_kits_condition),
+    ('securityDeskComputer', r.security_desk_computer_condition),
+    ('adminMeetingRoomsLocked', r.admin_meeting_rooms_locked_condition),
+    ('adminDoorsSecure', r.admin_doors_secure_condition),
+    ('infraBackDoor', r.infra_back_door_condition),
+    ('infraEntranceExitDoors', r.infra_entrance_exit_doors_condition),
+    ('infraSmokeDetectors', r.infra_smoke_detectors_condition),
+    ('infraWindowsSecure', r.infra_windows_secure_condition),
+    ('infraLaundryArea', r.infra_laundry_area_condition),
+    ('infraFireExtinguishers', r.infra_fire_extinguishers_condition),
+    ('infraFireAlarm', r.infra_fire_alarm_condition)
+) AS c(field, cond)
+WHERE LOWER(c.cond) LIKE '%critical%' OR LOWER(c.cond) LIKE '%high%' OR LOWER(c.cond) LIKE '%medium%';
@@ -0,0 +1,2 @@
+-- Archive listing walks reports newest-first per program and pages by (report_date, id) keyset
+CREATE INDEX idx_program_ucr_reports_archive ON program_ucr_reports(program_id, report_date DESC, id DESC);
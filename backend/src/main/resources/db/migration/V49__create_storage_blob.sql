@@ -0,0 +1,12 @@
+-- Content-addressed upload objects (blobs/<sha256 prefix>/<sha256><ext>), shared by every record
+-- that references the same file content. The object is removed when ref_count drops to zero.
+CREATE TABLE storage_blob (
+    storage_key VARCHAR(255) PRIMARY KEY,
+    sha256 VARCHAR(64) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    content_type VARCHAR(255),
+    ref_count INTEGER NOT NULL DEFAULT 1 CHECK (ref_count >= 0),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_storage_blob_sha256 ON storage_blob(sha256);
@@ -0,0 +1,10 @@
+-- Downscaled JPEG renditions of uploaded images, removed together with their original object
+CREATE TABLE storage_image_variant (
+    id BIGSERIAL PRIMARY KEY,
+    original_key VARCHAR(255) NOT NULL,
+    width INTEGER NOT NULL,
+    storage_key VARCHAR(255) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (original_key, width)
+);
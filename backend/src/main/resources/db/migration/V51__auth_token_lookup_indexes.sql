@@ -0,0 +1,5 @@
+-- Password links are looked up by token hash only
+CREATE INDEX IF NOT EXISTS idx_otl_token_hash ON one_time_logins(token_hash);
+
+-- AuthTokenReaper deletes expired MFA codes in id batches
+CREATE INDEX IF NOT EXISTS idx_mfa_expires ON mfa_codes(expires_at);
@@ -0,0 +1,8 @@
+-- Bulk-written child tables take ids from their sequence in blocks of 50 (Hibernate pooled
+-- optimizer, allocationSize = 50) so inserts can be JDBC-batched. Rows inserted by plain SQL
+-- still use the column default and simply consume a whole block.
+ALTER SEQUENCE census_entry_id_seq INCREMENT BY 50;
+ALTER SEQUENCE inventory_audit_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE medication_audit_counts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE inventory_requisitions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE watch_log_entries_id_seq INCREMENT BY 50;
@@ -0,0 +1,11 @@
+-- Counters behind NumberAllocator: one row per (scope, scope_id, period), advanced with
+-- UPDATE ... RETURNING in blocks. scope_id 0 is a global counter, period 0 never resets.
+CREATE TABLE number_counter (
+    id BIGSERIAL PRIMARY KEY,
+    scope VARCHAR(50) NOT NULL,
+    scope_id BIGINT NOT NULL DEFAULT 0,
+    period INTEGER NOT NULL DEFAULT 0,
+    last_value BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (scope, scope_id, period)
+);
@@ -0,0 +1,3 @@
+-- VisitationAutoCompleter looks up SCHEDULED visits by end time
+CREATE INDEX IF NOT EXISTS idx_visitations_scheduled_end
+    ON visitations(scheduled_end_time) WHERE status = 'SCHEDULED';
@@ -0,0 +1,35 @@
+-- Per-day totals of a diary card, kept alongside the JSON the frontend edits so saving a card
+-- and redeeming points no longer re-parse the whole card or sum redemptions
+ALTER TABLE points_diary_cards
+    ADD COLUMN IF NOT EXISTS day_points INTEGER[],
+    ADD COLUMN IF NOT EXISTS day_redemptions INTEGER[],
+    ADD COLUMN IF NOT EXISTS approved_points_redeemed INTEGER NOT NULL DEFAULT 0;
+
+UPDATE points_diary_cards c
+SET day_points = ARRAY(
+    SELECT COALESCE(SUM(CASE WHEN cell.value ~ '^\s*-?[0-9]+\s*$' THEN trim(cell.value)::INTEGER ELSE 0 END), 0)
+    FROM generate_series(0, 6) AS d(day)
+    LEFT JOIN jsonb_each(c.daily_points_json::jsonb) AS b(behavior, cells) ON jsonb_typeof(b.cells) = 'object'
+    LEFT JOIN LATERAL jsonb_each_text(b.cells) AS cell(key, value) ON cell.key = d.day::TEXT
+    GROUP BY d.day
+    ORDER BY d.day)
+WHERE c.daily_points_json IS NOT NULL AND c.daily_points_json <> '';
+
+UPDATE points_diary_cards c
+SET day_redemptions = ARRAY(
+    SELECT COALESCE(SUM(CASE WHEN cell.value ~ '^\s*-?[0-9]+\s*$' THEN trim(cell.value)::INTEGER ELSE 0 END), 0)
+    FROM generate_series(0, 6) AS d(day)
+    LEFT JOIN jsonb_each_text(c.daily_redemptions_json::jsonb) AS cell(key, value) ON cell.key = d.day::TEXT
+    GROUP BY d.day
+    ORDER BY d.day)
+WHERE c.daily_redemptions_json IS NOT NULL AND c.daily_redemptions_json <> '';
+
+UPDATE points_diary_cards c
+SET approved_points_redeemed = r.total
+FROM (
+    SELECT diary_card_id, SUM(points_redeemed) AS total
+    FROM points_redemptions
+    WHERE approval_status = 'approved' AND diary_card_id IS NOT NULL
+    GROUP BY diary_card_id
+) r
+WHERE r.diary_card_id = c.id;
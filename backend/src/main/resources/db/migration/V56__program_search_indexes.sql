@@ -0,0 +1,59 @@
+-- Ranked full-text search across logbook, phone log, visitation, repair and inventory records,
+-- plus trigram indexes so the existing substring searches no longer scan whole tables
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Logbook
+ALTER TABLE shift_logs ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english'::regconfig, coalesce(incidents_events, '')), 'A') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(shift_summary, '')), 'B') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(resident_comments, '')), 'C') ||
+    setweight(to_tsvector('simple'::regconfig, coalesce(unit_supervisor, '')), 'D')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_shift_logs_search ON shift_logs USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_shift_logs_summary_trgm ON shift_logs USING GIN (shift_summary gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_shift_logs_incidents_trgm ON shift_logs USING GIN (incidents_events gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_shift_logs_supervisor_trgm ON shift_logs USING GIN (unit_supervisor gin_trgm_ops);
+
+-- Phone logs
+ALTER TABLE phone_logs ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple'::regconfig, coalesce(contact_name, '') || ' ' || coalesce(phone_number, '')), 'A') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(additional_comments, '')), 'B') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(termination_reason, '')), 'C')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_phone_logs_search ON phone_logs USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_phone_logs_contact_trgm ON phone_logs USING GIN (lower(contact_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_phone_logs_number_trgm ON phone_logs USING GIN (lower(phone_number) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_phone_logs_comments_trgm ON phone_logs USING GIN (lower(additional_comments) gin_trgm_ops);
+
+-- Visitations
+ALTER TABLE visitations ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple'::regconfig, coalesce(visitor_info_json, '') || ' ' || coalesce(visitation_room, '')), 'A') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(incident_details, '')), 'A') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(visit_notes, '')), 'B') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(special_instructions, '') || ' ' || coalesce(denial_reason, '')), 'C')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_visitations_search ON visitations USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_visitations_room_trgm ON visitations USING GIN (lower(visitation_room) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_visitations_visitors_trgm ON visitations USING GIN (lower(visitor_info_json) gin_trgm_ops);
+
+-- Repair interventions
+ALTER TABLE repair_interventions ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english'::regconfig, coalesce(infraction_behavior, '')), 'A') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(comments, '')), 'B') ||
+    setweight(to_tsvector('simple'::regconfig, coalesce(assigning_staff_name, '')), 'D')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_repairs_search ON repair_interventions USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_repairs_behavior_trgm ON repair_interventions USING GIN (infraction_behavior gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_repairs_comments_trgm ON repair_interventions USING GIN (comments gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_repairs_staff_trgm ON repair_interventions USING GIN (assigning_staff_name gin_trgm_ops);
+
+-- Inventory
+ALTER TABLE inventory_items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english'::regconfig, coalesce(item_name, '')), 'A') ||
+    setweight(to_tsvector('simple'::regconfig, coalesce(category, '') || ' ' || coalesce(location, '')), 'B') ||
+    setweight(to_tsvector('english'::regconfig, coalesce(description, '')), 'C')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_inventory_items_search ON inventory_items USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_inventory_items_name_trgm ON inventory_items USING GIN (lower(item_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_inventory_items_location_trgm ON inventory_items USING GIN (lower(location) gin_trgm_ops);
+
@@ -0,0 +1,4 @@
+-- ResidentTimelineService reads each resident's records newest first, page by page
+CREATE INDEX IF NOT EXISTS idx_phone_logs_resident_time ON phone_logs(resident_id, call_date_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_visitations_resident_time ON visitations(resident_id, scheduled_start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_watch_assignments_resident_time ON watch_assignments(resident_id, start_date_time DESC, id DESC);
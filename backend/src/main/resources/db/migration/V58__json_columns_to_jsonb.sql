@@ -0,0 +1,46 @@
+-- V58__json_columns_to_jsonb.sql
+-- Store JSON documents as JSONB (entities map them with SqlTypes.JSON), reverting V16/V24/V25,
+-- so PATCH endpoints can update one path with jsonb_set and containment queries can use GIN indexes.
+
+-- Blank values become NULL; anything that is not valid JSON is kept as a JSON string
+CREATE FUNCTION pg_temp.to_jsonb_lenient(value TEXT) RETURNS JSONB AS $$
+BEGIN
+    IF value IS NULL OR btrim(value) = '' THEN
+        RETURN NULL;
+    END IF;
+    RETURN value::jsonb;
+EXCEPTION WHEN others THEN
+    RETURN to_jsonb(value);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+ALTER TABLE fire_plans
+    ALTER COLUMN staff_assignments_json TYPE JSONB USING pg_temp.to_jsonb_lenient(staff_assignments_json),
+    ALTER COLUMN resident_status_json TYPE JSONB USING pg_temp.to_jsonb_lenient(resident_status_json),
+    ALTER COLUMN route_config_json TYPE JSONB USING pg_temp.to_jsonb_lenient(route_config_json);
+
+ALTER TABLE fire_drill_reports
+    ALTER COLUMN route_performance_json TYPE JSONB USING pg_temp.to_jsonb_lenient(route_performance_json);
+
+ALTER TABLE shift_logs
+    ALTER COLUMN staff_assignments_json TYPE JSONB USING pg_temp.to_jsonb_lenient(staff_assignments_json),
+    ALTER COLUMN equipment_counts_json TYPE JSONB USING pg_temp.to_jsonb_lenient(equipment_counts_json);
+
+ALTER TABLE points_diary_cards
+    ALTER COLUMN daily_points_json TYPE JSONB USING pg_temp.to_jsonb_lenient(daily_points_json),
+    ALTER COLUMN daily_redemptions_json TYPE JSONB USING pg_temp.to_jsonb_lenient(daily_redemptions_json);
+
+ALTER TABLE program_ucr_reports
+    ALTER COLUMN room_searches TYPE JSONB USING pg_temp.to_jsonb_lenient(room_searches);
+
+-- Containment (@>) lookups inside the documents, e.g. shift logs a staff member worked
+CREATE INDEX IF NOT EXISTS idx_shift_logs_staff_assignments_gin
+    ON shift_logs USING GIN (staff_assignments_json jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_fire_plans_staff_assignments_gin
+    ON fire_plans USING GIN (staff_assignments_json jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_fire_plans_resident_status_gin
+    ON fire_plans USING GIN (resident_status_json jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_fire_drill_reports_route_performance_gin
+    ON fire_drill_reports USING GIN (route_performance_json jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_program_ucr_reports_room_searches_gin
+    ON program_ucr_reports USING GIN (room_searches jsonb_path_ops);
@@ -0,0 +1,31 @@
+-- V59__export_jobs.sql
+-- Queued CSV/XLSX exports, run by ExportJobService and uploaded through StorageService
+
+CREATE TABLE export_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    dataset VARCHAR(50) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    program_id BIGINT REFERENCES programs(id) ON DELETE CASCADE,
+    region VARCHAR(255),
+    from_date DATE,
+    to_date DATE,
+    requested_by VARCHAR(320) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED', -- QUEUED, RUNNING, DONE, FAILED
+    attempts INTEGER NOT NULL DEFAULT 0,
+    lease_expires_at TIMESTAMPTZ,
+    row_count BIGINT,
+    file_url TEXT,
+    file_size BIGINT,
+    last_error TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    started_at TIMESTAMPTZ,
+    completed_at TIMESTAMPTZ,
+    CONSTRAINT chk_export_jobs_scope CHECK (program_id IS NOT NULL OR region IS NOT NULL)
+);
+
+-- Queue scan of the runner
+CREATE INDEX idx_export_jobs_pending ON export_jobs(id) WHERE status IN ('QUEUED', 'RUNNING');
+CREATE INDEX idx_export_jobs_requested_by ON export_jobs(requested_by, created_at DESC);
+
+-- Program exports read transactions in date order
+CREATE INDEX IF NOT EXISTS idx_transactions_program_date ON inventory_transactions(program_id, transaction_date DESC);
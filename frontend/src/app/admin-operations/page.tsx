@@ -475,7 +475,11 @@ export default function AdminOperationsPage() {
           const data = JSON.parse(e.data);
           const type = data?.type as string | undefined;
           if (!type) return;
-          if (type === 'metrics.changed') {
+          if (type === 'resync') {
+            fetchUsers();
+            fetchRolesAndPerms();
+            fetchMetrics();
+          } else if (type === 'metrics.changed') {
             fetchMetrics();
           } else if (type.startsWith('users.')) {
             fetchUsers();
@@ -27,12 +27,40 @@ export default function SessionSync() {
 
     // Wrap window.fetch to catch 401 (unauthorized) anywhere in the app
     const originalFetch = window.fetch.bind(window);
+
+    // Re-issue the token once when the backend reports its embedded permissions are outdated
+    let refreshing: Promise<void> | null = null;
+    const refreshToken = () => {
+      if (refreshing) return refreshing;
+      refreshing = (async () => {
+        try {
+          const token = localStorage.getItem('token');
+          if (!token) return;
+          const r = await originalFetch('/api/auth/refresh', {
+            method: 'POST',
+            credentials: 'include',
+            headers: { 'Accept': 'application/json', Authorization: `Bearer ${token}` },
+          });
+          if (r.ok) {
+            const data = await r.json();
+            if (data?.accessToken) localStorage.setItem('token', data.accessToken);
+          }
+        } catch {
+          // keep the current token; the backend falls back to live permission checks
+        } finally {
+          refreshing = null;
+        }
+      })();
+      return refreshing;
+    };
     const wrappedFetch: typeof window.fetch = async (input: RequestInfo | URL, init?: RequestInit) => {
       try {
         const res = await originalFetch(input as any, init);
         // 401 = session invalid/expired -> force logout
         if (res && res.status === 401) {
           forceLogout();
+        } else if (res && res.headers.get('X-Token-Refresh') === 'true') {
+          void refreshToken();
         }
         return res;
       } catch (err) {
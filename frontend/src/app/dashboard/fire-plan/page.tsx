@@ -136,6 +136,8 @@ export default function FirePlanPage() {
 
   // Floor Plan state
   const [floorPlanImageUrl, setFloorPlanImageUrl] = useState('');
+  // 1024 px rendition for on-screen display; the original is kept for printing and saving
+  const [floorPlanPreviewUrl, setFloorPlanPreviewUrl] = useState('');
   const [showFloorPlanModal, setShowFloorPlanModal] = useState(false);
   const [floorPlanDetails, setFloorPlanDetails] = useState({
     lastUpdated: '',
@@ -269,6 +271,7 @@ export default function FirePlanPage() {
       if (response.ok) {
         const data = await response.json();
         setFloorPlanImageUrl(data.imageUrl || '');
+        setFloorPlanPreviewUrl(data.previewUrl || '');
         setFloorPlanDetails({
           lastUpdated: data.lastUpdated || '',
           scale: data.scale || '1:100',
@@ -1135,6 +1138,7 @@ export default function FirePlanPage() {
         if (response.ok) {
           const data = await response.json();
           setFloorPlanImageUrl(data.imageUrl);
+          setFloorPlanPreviewUrl(data.previewUrl || '');
           setFloorPlanDetails(prev => ({ ...prev, lastUpdated: new Date().toISOString() }));
           addToast('Floor plan uploaded successfully', 'success');
         } else if (response.status === 413) {
@@ -1616,7 +1620,7 @@ export default function FirePlanPage() {
           credentials: 'include',
           headers,
           body: JSON.stringify({
-            routeConfig: { routes: updated, assemblyPoints },
+            'routeConfig.routes': updated,
           }),
         });
         if (response.ok) {
@@ -1657,7 +1661,7 @@ export default function FirePlanPage() {
           credentials: 'include',
           headers,
           body: JSON.stringify({
-            routeConfig: { routes: next, assemblyPoints },
+            'routeConfig.routes': next,
           }),
         });
         if (response.ok) {
@@ -1713,7 +1717,7 @@ export default function FirePlanPage() {
           credentials: 'include',
           headers,
           body: JSON.stringify({
-            routeConfig: { routes: evacuationRoutes, assemblyPoints: updated },
+            'routeConfig.assemblyPoints': updated,
           }),
         });
         if (response.ok) {
@@ -1754,7 +1758,7 @@ export default function FirePlanPage() {
           credentials: 'include',
           headers,
           body: JSON.stringify({
-            routeConfig: { routes: evacuationRoutes, assemblyPoints: next },
+            'routeConfig.assemblyPoints': next,
           }),
         });
         if (response.ok) {
@@ -2605,7 +2609,7 @@ export default function FirePlanPage() {
             <div className="bg-gray-100 rounded-lg p-8 text-center">
               <img 
                 className="w-full h-auto max-h-96 object-contain rounded-lg shadow-md" 
-                src={floorPlanImageUrl || "https://storage.googleapis.com/uxpilot-auth.appspot.com/5ea061d02c-eff4b0701f06055f1bc2.png"} 
+                src={floorPlanPreviewUrl || floorPlanImageUrl || "https://storage.googleapis.com/uxpilot-auth.appspot.com/5ea061d02c-eff4b0701f06055f1bc2.png"} 
                 alt="facility floor plan with fire exit routes" 
               />
             </div>
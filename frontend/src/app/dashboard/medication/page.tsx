@@ -189,7 +189,7 @@ export default function MedicationPage() {
     let es: EventSource | null = null;
     try {
       const token = localStorage.getItem('token');
-      const eventUrl = `/api/events${token ? `?token=${encodeURIComponent(token)}` : ''}`;
+      const eventUrl = `/api/events?programId=${encodeURIComponent(programId || '')}${token ? `&token=${encodeURIComponent(token)}` : ''}`;
       es = new EventSource(eventUrl);
       
       es.onmessage = (ev) => {
@@ -200,6 +200,17 @@ export default function MedicationPage() {
           // Only process events for current program
           const eventProgramId = data.programId ? Number(data.programId) : null;
           if (eventProgramId && eventProgramId !== programId) return;
+
+          // Missed events could not be replayed, reload what this tab shows
+          if (data.type === 'resync') {
+            if (userRole.includes('NURSE') || userRole.includes('ADMIN')) fetchPendingAudits();
+            if (activeTab === 'med-sheets') fetchResidentsWithMedications();
+            if (activeTab === 'audit') fetchResidentMedsForAudit();
+            if (activeTab === 'audit-archive') fetchAuditArchive();
+            if (activeTab === 'admin-archive') fetchAdminArchive();
+            if (activeTab === 'alerts') fetchAlerts();
+            return;
+          }
           
           console.log('[Medication SSE] Event received:', data.type);
           
@@ -266,8 +277,7 @@ export default function MedicationPage() {
       };
       
       es.onerror = () => {
-        // Silently handle SSE errors
-        try { es && es.close(); } catch {}
+        // Leave it open: the browser reconnects with Last-Event-ID and the missed events are replayed
       };
     } catch (err) {
       console.error('[Medication SSE] Error setting up event source:', err);
@@ -109,18 +109,19 @@ export default function OffsiteMovementsPage() {
     if (!programId) return;
     
     const token = localStorage.getItem('token');
-    const eventSource = new EventSource(`/api/events${token ? `?token=${token}` : ''}`);
+    const eventSource = new EventSource(`/api/events?programId=${encodeURIComponent(programId || '')}${token ? `&token=${encodeURIComponent(token)}` : ''}`);
     
     eventSource.onmessage = (event) => {
       try {
         const data = JSON.parse(event.data);
         
         // Refresh movements when created, updated, or completed
-        if (data.type === 'movement_scheduled' || 
+        if (data.type === 'resync' ||
+            data.type === 'movement_scheduled' || 
             data.type === 'movement_started' ||
             data.type === 'movement_completed' ||
             data.type === 'movement_cancelled') {
-          if (data.programId && String(data.programId) === String(programId)) {
+          if (data.type === 'resync' || (data.programId && String(data.programId) === String(programId))) {
             // Refresh all movement lists
             if (activeTab === 'overview') {
               fetchScheduledMovements();
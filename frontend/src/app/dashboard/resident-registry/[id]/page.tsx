@@ -266,7 +266,7 @@ export default function ResidentProfilePage() {
       
       if (!programId) return;
 
-      const res = await fetch(`/api/programs/${programId}/residents/${residentId}/profile-picture-url`, {
+      const res = await fetch(`/api/programs/${programId}/residents/${residentId}/profile-picture-url?size=256`, {
         credentials: 'include',
         headers: { 'Accept': 'application/json', ...(token ? { Authorization: `Bearer ${token}` } : {}) }
       });
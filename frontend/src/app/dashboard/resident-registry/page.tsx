@@ -18,6 +18,8 @@ export default function ResidentRegistryPage() {
 
   // Resident form minimal state
   const [resResidentId, setResResidentId] = useState<string>('');
+  // Id suggested by the server; left unchanged, the server allocates one on create instead
+  const [suggestedResidentId, setSuggestedResidentId] = useState<string>('');
   const [resRoom, setResRoom] = useState<string>('');
   const [resFirstName, setResFirstName] = useState<string>('');
   const [resLastName, setResLastName] = useState<string>('');
@@ -71,7 +73,7 @@ export default function ResidentRegistryPage() {
         const r = await fetch(`/api/programs/${programId}/residents/next-id`, { credentials: 'include', headers: { 'Accept':'application/json', ...(token? { Authorization: `Bearer ${token}` }: {}) } });
         if (!r.ok) return;
         const data = await r.json();
-        if (data?.nextId) setResResidentId(String(data.nextId));
+        if (data?.nextId) { setResResidentId(String(data.nextId)); setSuggestedResidentId(String(data.nextId)); }
       } catch {}
     })();
   }, [activeTab, programId]);
@@ -99,7 +101,7 @@ export default function ResidentRegistryPage() {
     let es: EventSource | null = null;
     try {
       const token = localStorage.getItem('token');
-      const eventUrl = `/api/events${token ? `?token=${encodeURIComponent(token)}` : ''}`;
+      const eventUrl = `/api/events?programId=${encodeURIComponent(programId || '')}&types=programs.residents.*${token ? `&token=${encodeURIComponent(token)}` : ''}`;
       es = new EventSource(eventUrl);
       es.onmessage = (ev) => {
         try {
@@ -107,14 +109,13 @@ export default function ResidentRegistryPage() {
           if (!data?.type) return;
           const pid = data?.programId ? String(data.programId) : '';
           if (!programId || (pid && pid !== programId)) return;
-          if (data.type === 'programs.residents.added' || data.type === 'programs.residents.updated' || data.type === 'programs.residents.removed') {
+          if (data.type === 'resync' || data.type === 'programs.residents.added' || data.type === 'programs.residents.updated' || data.type === 'programs.residents.removed') {
             loadResidents();
           }
         } catch {}
       };
       es.onerror = () => {
-        // Silently handle SSE errors (403, connection issues)
-        try { es && es.close(); } catch {}
+        // Leave it open: the browser reconnects with Last-Event-ID and the missed events are replayed
       };
     } catch {}
     return () => { try { es && es.close(); } catch {} };
@@ -306,7 +307,7 @@ export default function ResidentRegistryPage() {
                 const payload = {
                   firstName: resFirstName.trim(),
                   lastName: resLastName.trim(),
-                  residentId: resResidentId || undefined,
+                  residentId: resResidentId && resResidentId !== suggestedResidentId ? resResidentId : undefined,
                   room: resRoom || undefined,
                   status: resStatus || undefined,
                   advocate: resAdvocate || undefined,
@@ -323,7 +324,7 @@ export default function ResidentRegistryPage() {
                 // fetch next auto id for next entry
                 try {
                   const r = await fetch(`/api/programs/${programId}/residents/next-id`, { credentials:'include', headers: { 'Accept':'application/json', ...(token? { Authorization: `Bearer ${token}` }: {}) } });
-                  if (r.ok) { const d = await r.json(); if (d?.nextId) setResResidentId(String(d.nextId)); }
+                  if (r.ok) { const d = await r.json(); if (d?.nextId) { setResResidentId(String(d.nextId)); setSuggestedResidentId(String(d.nextId)); } }
                 } catch {}
               } catch {}
             }}>
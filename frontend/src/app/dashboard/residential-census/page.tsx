@@ -184,12 +184,12 @@ export default function ResidentialCensusPage() {
     let es: EventSource | null = null;
     try {
       const token = localStorage.getItem('token');
-      const eventUrl = `/api/events${token ? `?token=${encodeURIComponent(token)}` : ''}`;
+      const eventUrl = `/api/events?programId=${encodeURIComponent(programId || '')}&types=census.*${token ? `&token=${encodeURIComponent(token)}` : ''}`;
       es = new EventSource(eventUrl);
       es.onmessage = (ev) => {
         try {
           const data = JSON.parse(ev.data || '{}') as { type?: string; programId?: number | string };
-          if (data?.type === 'census.submitted' && String(data.programId) === String(programId)) {
+          if (data?.type === 'resync' || (data?.type === 'census.submitted' && String(data.programId) === String(programId))) {
             loadHistoricalCensuses(programId);
           }
         } catch {}
@@ -97,7 +97,7 @@ export default function StaffRegistryPage() {
     let es: EventSource | null = null;
     try {
       const token = localStorage.getItem('token');
-      const eventUrl = `/api/events${token ? `?token=${encodeURIComponent(token)}` : ''}`;
+      const eventUrl = `/api/events?programId=${encodeURIComponent(programId || '')}&types=programs.assignments.*${token ? `&token=${encodeURIComponent(token)}` : ''}`;
       es = new EventSource(eventUrl);
       es.onmessage = (ev) => {
         try {
@@ -105,14 +105,13 @@ export default function StaffRegistryPage() {
           if (!data?.type) return;
           const pid = data?.programId ? String(data.programId) : '';
           if (!programId || (pid && pid !== programId)) return;
-          if (data.type === 'programs.assignments.updated') {
+          if (data.type === 'resync' || data.type === 'programs.assignments.updated') {
             loadAssignments();
           }
         } catch {}
       };
       es.onerror = () => {
-        // Silently handle SSE errors
-        try { es && es.close(); } catch {}
+        // Leave it open: the browser reconnects with Last-Event-ID and the missed events are replayed
       };
     } catch {}
     return () => { try { es && es.close(); } catch {} };
@@ -44,6 +44,10 @@ export default function UCRPage() {
       const params = new URLSearchParams();
       params.set('page', reset ? '0' : String(pageIdx));
       params.set('size', '5');
+      // Status and date range are filtered server-side so pages and totals stay accurate
+      if (filterStatus && filterStatus !== 'All Status') params.set('status', filterStatus);
+      if (filterFrom) params.set('from', filterFrom);
+      if (filterTo) params.set('to', filterTo);
       const r = await fetch(`/api/programs/${programId}/ucr/reports/page?${params}`, { credentials:'include', headers:{ ...(token?{Authorization:`Bearer ${token}`}:{}) } });
       if (!r.ok) return;
       const data = await r.json();
@@ -700,6 +704,7 @@ export default function UCRPage() {
 
   useEffect(() => { if (programId) { loadReports(true); loadStats(); loadOpenIssues(); loadChartData(); } }, [programId]);
   useEffect(() => { if (programId) { loadReports(); } }, [pageIdx]);
+  useEffect(() => { if (programId) { loadReports(true); } }, [filterStatus, filterFrom, filterTo]);
 
   // SSE live refresh
   useEffect(() => {
@@ -707,7 +712,7 @@ export default function UCRPage() {
     let es: EventSource | null = null;
     try {
       const token = localStorage.getItem('token');
-      const eventUrl = `/api/events${token ? `?token=${encodeURIComponent(token)}` : ''}`;
+      const eventUrl = `/api/events?programId=${encodeURIComponent(programId || '')}&types=programs.ucr.*${token ? `&token=${encodeURIComponent(token)}` : ''}`;
       es = new EventSource(eventUrl);
       es.onmessage = (ev) => {
         try {
@@ -715,7 +720,7 @@ export default function UCRPage() {
           if (!data?.type) return;
           const pid = data?.programId ? String(data.programId) : '';
           if (pid && pid !== programId) return;
-          if (data.type === 'programs.ucr.created' || data.type === 'programs.ucr.updated') { 
+          if (data.type === 'resync' || data.type === 'programs.ucr.created' || data.type === 'programs.ucr.updated') { 
             console.log('SSE: UCR updated, refreshing all data including chart');
             loadReports(); 
             loadStats(); 
@@ -725,8 +730,7 @@ export default function UCRPage() {
         } catch {}
       };
       es.onerror = () => {
-        // Silently handle SSE errors
-        try { es && es.close(); } catch {}
+        // Leave it open: the browser reconnects with Last-Event-ID and the missed events are replayed
       };
     } catch {}
     return () => { try { es && es.close(); } catch {} };
@@ -1143,32 +1147,8 @@ export default function UCRPage() {
     }
   };
 
-  // Client-side filtering for archive table: status + optional date range
-  const normalizedStatus = filterStatus && filterStatus !== 'All Status' ? filterStatus : '';
-  const filteredReports = ucrReports.filter((r: any) => {
-    const statusText = (r.reportStatus || '') as string;
-    const dateObj = r.reportDate ? new Date(r.reportDate + 'T00:00:00') : null;
-
-    // Status filter
-    const matchStatus = !normalizedStatus || statusText === normalizedStatus;
-
-    // Date range filter (inclusive)
-    let matchDate = true;
-    if (dateObj) {
-      if (filterFrom) {
-        const from = new Date(filterFrom + 'T00:00:00');
-        if (dateObj < from) matchDate = false;
-      }
-      if (filterTo) {
-        const to = new Date(filterTo + 'T00:00:00');
-        if (dateObj > to) matchDate = false;
-      }
-    } else if (filterFrom || filterTo) {
-      matchDate = false;
-    }
-
-    return matchStatus && matchDate;
-  });
+  // Archive rows are already filtered by status and date range on the server
+  const filteredReports = ucrReports;
 
   return (
     <div className="space-y-6">
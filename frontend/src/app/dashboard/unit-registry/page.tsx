@@ -29,6 +29,8 @@ export default function OnboardingPage() {
   const [selectedStaff, setSelectedStaff] = useState<StaffLite | null>(null);
   // Resident form minimal state
   const [resResidentId, setResResidentId] = useState<string>('');
+  // Id suggested by the server; left unchanged, the server allocates one on create instead
+  const [suggestedResidentId, setSuggestedResidentId] = useState<string>('');
   const [resRoom, setResRoom] = useState<string>('');
   const [resFirstName, setResFirstName] = useState<string>('');
   const [resLastName, setResLastName] = useState<string>('');
@@ -122,7 +124,7 @@ export default function OnboardingPage() {
         const r = await fetch(`/api/programs/${programId}/residents/next-id`, { credentials: 'include', headers: { 'Accept':'application/json', ...(token? { Authorization: `Bearer ${token}` }: {}) } });
         if (!r.ok) return;
         const data = await r.json();
-        if (data?.nextId) setResResidentId(String(data.nextId));
+        if (data?.nextId) { setResResidentId(String(data.nextId)); setSuggestedResidentId(String(data.nextId)); }
       } catch {}
     })();
   }, [activeTab, programId]);
@@ -151,7 +153,7 @@ export default function OnboardingPage() {
     let es: EventSource | null = null;
     try {
       const token = localStorage.getItem('token');
-      const eventUrl = `/api/events${token ? `?token=${encodeURIComponent(token)}` : ''}`;
+      const eventUrl = `/api/events?programId=${encodeURIComponent(programId || '')}&types=programs.*${token ? `&token=${encodeURIComponent(token)}` : ''}`;
       es = new EventSource(eventUrl);
       es.onmessage = (ev) => {
         try {
@@ -159,6 +161,12 @@ export default function OnboardingPage() {
           if (!data?.type) return;
           const pid = data?.programId ? String(data.programId) : '';
           if (!programId || (pid && pid !== programId)) return;
+          if (data.type === 'resync') {
+            // Missed events could not be replayed, reload everything
+            loadResidents();
+            loadAssignments();
+            return;
+          }
           if (data.type === 'programs.residents.added' || data.type === 'programs.residents.updated' || data.type === 'programs.residents.removed') {
             loadResidents();
           }
@@ -168,8 +176,7 @@ export default function OnboardingPage() {
         } catch {}
       };
       es.onerror = () => {
-        // Silently handle SSE errors
-        try { es && es.close(); } catch {}
+        // Leave it open: the browser reconnects with Last-Event-ID and the missed events are replayed
       };
     } catch {}
     return () => { try { es && es.close(); } catch {} };
@@ -483,7 +490,7 @@ export default function OnboardingPage() {
                 const payload = {
                   firstName: resFirstName.trim(),
                   lastName: resLastName.trim(),
-                  residentId: resResidentId || undefined,
+                  residentId: resResidentId && resResidentId !== suggestedResidentId ? resResidentId : undefined,
                   room: resRoom || undefined,
                   status: resStatus || undefined,
                   advocate: resAdvocate || undefined,
@@ -500,7 +507,7 @@ export default function OnboardingPage() {
                 // fetch next auto id for next entry
                 try {
                   const r = await fetch(`/api/programs/${programId}/residents/next-id`, { credentials:'include', headers: { 'Accept':'application/json', ...(token? { Authorization: `Bearer ${token}` }: {}) } });
-                  if (r.ok) { const d = await r.json(); if (d?.nextId) setResResidentId(String(d.nextId)); }
+                  if (r.ok) { const d = await r.json(); if (d?.nextId) { setResResidentId(String(d.nextId)); setSuggestedResidentId(String(d.nextId)); } }
                 } catch {}
               } catch {}
             }}>
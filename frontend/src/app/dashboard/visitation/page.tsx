@@ -101,19 +101,20 @@ export default function VisitationPage() {
     if (!programId) return;
     
     const token = localStorage.getItem('token');
-    const eventSource = new EventSource(`/api/events${token ? `?token=${token}` : ''}`);
+    const eventSource = new EventSource(`/api/events?programId=${encodeURIComponent(programId || '')}${token ? `&token=${encodeURIComponent(token)}` : ''}`);
     
     eventSource.onmessage = (event) => {
       try {
         const data = JSON.parse(event.data);
         
         // Auto-refresh visitations when created, approved, cancelled, or auto-completed
-        if (data.type === 'visitations.created' || 
+        if (data.type === 'resync' ||
+            data.type === 'visitations.created' || 
             data.type === 'visitations.approved' || 
             data.type === 'visitations.cancelled' ||
             data.type === 'visitations.auto_completed') {
           // Only refresh if it's for the current program
-          if (data.programId && String(data.programId) === String(programId)) {
+          if (data.type === 'resync' || (data.programId && String(data.programId) === String(programId))) {
             // Fetch updated visitations
             const token = localStorage.getItem('token');
             fetch(`/api/programs/${programId}/visitations/upcoming`, {